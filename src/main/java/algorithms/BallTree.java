@@ -0,0 +1,359 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.IndexHeap;
+import util.TopK;
+import util.Vector;
+import util.VectorStore;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem with a ball
+ * tree, on the Euclidean distance. Every node of the tree covers a contiguous
+ * range of the reference items, and keeps the center c of their {@link
+ * Vector}s and the radius r of the smallest ball around c that holds them. By
+ * the triangle inequality, no item of a node is further than d(q, c) + r from
+ * a query q, so the nodes are visited best-first, in descending order of that
+ * bound, and the search stops as soon as it falls below the k-th furthest
+ * distance found so far. The answers are identical to the ones of {@link
+ * StoreBruteForce}.
+ * @param <T> The type of the items.
+ */
+public class BallTree<T> implements FurthestItems<T> {
+
+    /**
+     * The maximum number of items of a leaf.
+     */
+    private static final int LEAF_SIZE = 32;
+
+    /**
+     * A {@link List} with the reference items, in the order of the leaves of
+     * the tree. The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * A {@link VectorStore} with the {@link Vector} representations of the
+     * reference items, addressed by their ids.
+     */
+    private @NotNull VectorStore store;
+
+    /**
+     * The {@link MedianSplit} with the nodes of the tree, where the position
+     * of every item in the split order is its id.
+     */
+    private @NotNull MedianSplit tree;
+
+    /**
+     * A {@link VectorStore} with the centers of the nodes, addressed by the
+     * indices of the nodes.
+     */
+    private @NotNull VectorStore centers;
+
+    /**
+     * The radius of every node.
+     */
+    private @NotNull double[] radii;
+
+    /**
+     * A {@link Function} that accepts an item and returns its {@link Vector}
+     * representation.
+     */
+    private @NotNull Function<T, Vector> toVector;
+
+    /**
+     * The precision that the {@link VectorStore} stores the coordinates in.
+     */
+    private @NotNull VectorStore.Precision precision;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * BallTree} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a {@link BallTree}, ready to accept queries. The coordinates are
+     * stored in double precision.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public BallTree(@NotNull Collection<T> universe, @NotNull Function<T,
+            Vector> toVector) {
+        this(universe, toVector, VectorStore.Precision.DOUBLE,
+                ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link BallTree}, ready to accept queries. The tree is built
+     * on the given {@link ExecutionContext}, which the queries then run on
+     * too, unless {@link #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param precision The precision that the coordinates are stored in.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public BallTree(@NotNull Collection<T> universe, @NotNull Function<T,
+            Vector> toVector, @NotNull VectorStore.Precision precision,
+            @NotNull ExecutionContext context) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.toVector = toVector;
+        this.precision = precision;
+        this.context = context;
+        this.setItems(universe);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        TopK topK = this.select(this.toVector.apply(query), k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        return ScoredItems.of(this.select(this.toVector.apply(query), k),
+                this.items, true);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel, and the ones with equal
+     * coordinates are answered once.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        return BatchResult.euclidean(queries, this.items, k, this.toVector,
+                query -> this.select(query, k), this.context);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query {@link Vector}, with their
+     * squared distances. The nodes wait in an {@link IndexHeap} by their
+     * bounds, the leaves are scanned as they are polled, and the inner nodes
+     * add their children, until the bound of the next node can't beat the
+     * k-th furthest distance.
+     */
+    private @NotNull TopK select(@NotNull Vector query, final int k) {
+        final double[] BOUNDS = new double[this.radii.length];
+        final double[] DISTANCES = new double[LEAF_SIZE];
+        IndexHeap heap = IndexHeap.empty(BOUNDS);
+        TopK topK = TopK.local(k);
+        BOUNDS[0] = this.bound(0, query);
+        heap.add(0);
+        while (!heap.isEmpty()) {
+            final int NODE = heap.poll();
+            if (BOUNDS[NODE] * BOUNDS[NODE] < topK.threshold()) {
+                break;
+            }//end if
+
+            final int FROM = this.tree.from(NODE);
+            final int TO = this.tree.to(NODE);
+            if (this.tree.isLeaf(NODE)) {
+                this.store.sqrDistances(query, FROM, TO, DISTANCES);
+                topK.offerAll(DISTANCES, TO - FROM, FROM);
+                continue;
+            }//end if
+
+            for (int child = 2 * NODE + 1; child <= 2 * NODE + 2; ++child) {
+                BOUNDS[child] = this.bound(child, query);
+                if (BOUNDS[child] * BOUNDS[child] >= topK.threshold()) {
+                    heap.add(child);
+                }//end if
+            }//end for
+        }//end while
+
+        return topK;
+    }
+
+    /**
+     * Computes the largest distance that an item of a node can be at from a
+     * query {@link Vector}, raised by the slack.
+     */
+    private double bound(final int node, @NotNull Vector query) {
+        return Bounds.raise(Math.sqrt(this.centers.sqrDistance(node, query)) +
+                this.radii[node]);
+    }
+
+    /**
+     * Sets the reference items of this {@link BallTree}.
+     * @param universe A {@link Collection} with the new reference items.
+     * @throws IllegalArgumentException If the given {@link Collection} is
+     * empty.
+     */
+    public void setUniverse(@NotNull Collection<T> universe) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.setItems(universe);
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@link Vector} from an item.
+     * @param toVector A {@link Function} that extracts a {@link Vector} from an
+     * item.
+     */
+    public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
+        this.toVector = toVector;
+        this.setItems(this.items);
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * BallTree} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Builds the tree on the reference items. The items are split by a {@link
+     * MedianSplit} and stored in its order, and then the center and the
+     * radius of every node are computed, in parallel.
+     */
+    private void setItems(@NotNull Collection<T> universe) {
+        final List<T> UNSORTED = new ArrayList<>(universe);
+        final VectorStore UNSORTED_STORE = VectorStore.of(UNSORTED,
+                this.toVector, this.precision);
+        final int SIZE = UNSORTED.size();
+        final MedianSplit TREE = new MedianSplit(UNSORTED_STORE, LEAF_SIZE,
+                this.context);
+        final int[] ORDER = TREE.order();
+
+        final List<T> ITEMS = new ArrayList<>(SIZE);
+        final VectorStore STORE = new VectorStore(SIZE,
+                UNSORTED_STORE.dimensions(), this.precision);
+        for (int id = 0; id < SIZE; ++id) {
+            ITEMS.add(UNSORTED.get(ORDER[id]));
+            STORE.set(id, UNSORTED_STORE.get(ORDER[id]));
+        }//end for
+
+        final VectorStore CENTERS = new VectorStore(TREE.slots(),
+                STORE.dimensions());
+        final double[] RADII = new double[TREE.slots()];
+        this.context.run(() -> IntStream.range(0, TREE.slots())
+                                        .parallel()
+                                        .filter(TREE::exists)
+                                        .forEach(node -> BallTree.ball(STORE,
+                                                TREE.from(node), TREE.to(node),
+                                                node, CENTERS, RADII)));
+
+        this.items = ITEMS;
+        this.store = STORE;
+        this.tree = TREE;
+        this.centers = CENTERS;
+        this.radii = RADII;
+        ++this.version;
+    }
+
+    /**
+     * Computes the center of the {@link Vector}s with ids in [from, to), and
+     * the radius of the smallest ball around it that holds them, as the ones
+     * of a node.
+     */
+    private static void ball(@NotNull VectorStore store, final int from, final
+            int to, final int node, @NotNull VectorStore centers, @NotNull
+            double[] radii) {
+        final double[] SUMS = new double[store.dimensions()];
+        for (int id = from; id < to; ++id) {
+            for (int i = 0; i < SUMS.length; ++i) {
+                SUMS[i] += store.get(id, i);
+            }//end for
+        }//end for
+
+        final Vector CENTER = new Vector(SUMS).divide(to - from);
+        double sqrRadius = 0.0;
+        for (int id = from; id < to; ++id) {
+            sqrRadius = Math.max(sqrRadius, store.sqrDistance(id, CENTER));
+        }//end for
+
+        centers.set(node, CENTER);
+        radii[node] = Math.sqrt(sqrRadius);
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Ball Tree - precision: %s", this.precision);
+    }
+
+}//end class BallTree
\ No newline at end of file
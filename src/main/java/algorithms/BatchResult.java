@@ -0,0 +1,544 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.TopK;
+import util.Vector;
+import util.VectorKey;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The k-furthest items of a batch of query items, laid out in query-major
+ * primitive arrays. The i-th furthest item of the q-th query item is at index
+ * {@code q * k + i} of both arrays: its id is in {@link #ids()} and its
+ * distance from the query item in {@link #distances()}. The ids are indices of
+ * a {@link List} of items, that {@link #item(int, int)} resolves them with.
+ * If an algorithm finds less than k items for a query item, its remaining ids
+ * are -1 and its remaining distances NaN.
+ * @param <T> The type of the items.
+ */
+public final class BatchResult<T> {
+
+    /**
+     * The query items, in the order of their results.
+     */
+    private final @NotNull List<T> queries;
+
+    /**
+     * The items that the ids are indices of.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * The number of furthest items per query item.
+     */
+    private final int k;
+
+    /**
+     * The ids of the furthest items, in query-major order.
+     */
+    private final @NotNull int[] ids;
+
+    /**
+     * The distances of the furthest items from their query items, in
+     * query-major order.
+     */
+    private final @NotNull double[] distances;
+
+    /**
+     * A {@link Map} view of this {@link BatchResult}, created on the 1st call
+     * of {@link #asMap()}.
+     */
+    private Map<T, List<T>> map;
+
+    /**
+     * Creates a {@link BatchResult}. The arrays are not copied.
+     * @param queries The query items, in the order of their results.
+     * @param items The items that the ids are indices of.
+     * @param k The number of furthest items per query item.
+     * @param ids The ids of the furthest items, in query-major order.
+     * @param distances The distances of the furthest items from their query
+     * items, in query-major order.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     * @throws IllegalArgumentException If {@code ids.length != queries.size()
+     * * k || distances.length != ids.length}.
+     */
+    BatchResult(@NotNull List<T> queries, @NotNull List<T> items, final int
+            k, @NotNull int[] ids, @NotNull double[] distances) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Argument k must be >= 1.");
+        }//end if
+
+        if (ids.length != (long) queries.size() * k || distances.length !=
+                ids.length) {
+            throw new IllegalArgumentException("Arguments ids and distances " +
+                    "must have length queries.size() * k.");
+        }//end if
+
+        this.queries = queries;
+        this.items = items;
+        this.k = k;
+        this.ids = ids;
+        this.distances = distances;
+    }
+
+    /**
+     * Writes the pairs of a {@link TopK} to k consecutive slots of query-major
+     * arrays, in descending order of their scores. The slots after its pairs
+     * get the id -1 and the score NaN.
+     * @param topK The {@link TopK} with the pairs. It is sorted.
+     * @param offset The index of the 1st slot.
+     * @param k The number of slots.
+     * @param ids The array to write the ids to.
+     * @param scores The array to write the scores to.
+     */
+    static void fill(@NotNull TopK topK, final int offset, final int k,
+            @NotNull int[] ids, @NotNull double[] scores) {
+        topK.sortDescending();
+        for (int i = 0; i < k; ++i) {
+            final boolean FOUND = i < topK.size();
+            ids[offset + i] = FOUND ? topK.id(i) : -1;
+            scores[offset + i] = FOUND ? topK.score(i) : Double.NaN;
+        }//end for
+    }
+
+    /**
+     * Concatenates the {@link BatchResult}s of consecutive chunks of query
+     * items. If the chunks index different {@link List}s of items, the ids
+     * are shifted to index their concatenation, where every {@link List}
+     * appears once.
+     * @param queries The query items of all the chunks, in order.
+     * @param k The number of furthest items per query item.
+     * @param parts The {@link BatchResult}s of the chunks, in order.
+     * @param <T> The type of the items.
+     * @return A {@link BatchResult} with the results of all the chunks.
+     * @throws IllegalArgumentException If the parts do not cover the query
+     * items, with k furthest items per query item.
+     */
+    static <T> @NotNull BatchResult<T> concat(@NotNull List<T> queries, final
+            int k, @NotNull List<BatchResult<T>> parts) {
+        final Map<List<T>, Integer> OFFSETS = new IdentityHashMap<>();
+        List<T> items = parts.get(0).items;
+        for (BatchResult<T> part : parts) {
+            if (!OFFSETS.containsKey(part.items)) {
+                OFFSETS.put(part.items, OFFSETS.isEmpty() ? 0 : items.size());
+                if (OFFSETS.size() == 2) {
+                    items = new ArrayList<>(items);
+                }//end if
+                if (OFFSETS.size() > 1) {
+                    items.addAll(part.items);
+                }//end if
+            }//end if
+        }//end for
+
+        final int[] IDS = new int[queries.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        int offset = 0;
+        for (BatchResult<T> part : parts) {
+            if (part.k != k) {
+                throw new IllegalArgumentException("Argument parts must have " +
+                        "the given k.");
+            }//end if
+
+            final int SHIFT = OFFSETS.get(part.items);
+            for (int i = 0; i < part.ids.length; ++i) {
+                IDS[offset + i] = (part.ids[i] == -1) ? -1 : part.ids[i] +
+                        SHIFT;
+            }//end for
+            System.arraycopy(part.distances, 0, DISTANCES, offset,
+                    part.distances.length);
+            offset += part.ids.length;
+        }//end for
+
+        return new BatchResult<>(queries, items, k, IDS, DISTANCES);
+    }
+
+    /**
+     * Creates a {@link BatchResult} from the {@link ScoredItems} of every query
+     * item. The ids index a new {@link List}, with the items of all the
+     * {@link ScoredItems} in order.
+     * @param queries The query items.
+     * @param k The number of furthest items per query item.
+     * @param results The {@link ScoredItems} of every query item, with at most
+     * k items each.
+     * @param <T> The type of the items.
+     * @return A {@link BatchResult} with the given results.
+     * @throws IllegalArgumentException If {@code results.size() !=
+     * queries.size()}.
+     */
+    static <T> @NotNull BatchResult<T> of(@NotNull List<T> queries, final int
+            k, @NotNull List<ScoredItems<T>> results) {
+        if (results.size() != queries.size()) {
+            throw new IllegalArgumentException("Argument results must have " +
+                    "size queries.size().");
+        }//end if
+
+        final int[] IDS = new int[queries.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        Arrays.fill(IDS, -1);
+        Arrays.fill(DISTANCES, Double.NaN);
+        List<T> items = new ArrayList<>();
+        for (int q = 0; q < results.size(); ++q) {
+            final ScoredItems<T> RESULT = results.get(q);
+            for (int i = 0; i < Math.min(k, RESULT.size()); ++i) {
+                IDS[q * k + i] = items.size();
+                DISTANCES[q * k + i] = RESULT.distance(i);
+                items.add(RESULT.item(i));
+            }//end for
+        }//end for
+
+        return new BatchResult<>(queries, items, k, IDS, DISTANCES);
+    }
+
+    /**
+     * Numbers the distinct keys of the elements of a batch, in the order of
+     * their first occurrence. Elements with equal keys get the same number, so
+     * that only the first of them needs to be answered.
+     * @param elements The elements of the batch.
+     * @param toKey A {@link Function} that accepts an element and returns its
+     * key, which must have value equality.
+     * @param <E> The type of the elements.
+     * @return The number of the key of every element.
+     */
+    static <E> @NotNull int[] distinct(@NotNull List<E> elements, @NotNull
+            Function<? super E, ?> toKey) {
+        final Map<Object, Integer> NUMBERS = new HashMap<>();
+        final int[] SLOTS = new int[elements.size()];
+        for (int i = 0; i < SLOTS.length; ++i) {
+            SLOTS[i] = NUMBERS.computeIfAbsent(toKey.apply(elements.get(i)),
+                    key -> NUMBERS.size());
+        }//end for
+
+        return SLOTS;
+    }
+
+    /**
+     * Keeps the first element of every number of {@link #distinct(List,
+     * Function)}.
+     * @param elements The elements of the batch.
+     * @param slots The number of every element.
+     * @param <E> The type of the elements.
+     * @return A {@link List} with the first element of every number, in the
+     * order of the numbers. It is the given {@link List} itself, if all the
+     * numbers are distinct.
+     */
+    static <E> @NotNull List<E> representatives(@NotNull List<E> elements,
+            @NotNull int[] slots) {
+        List<E> result = new ArrayList<>();
+        for (int i = 0; i < slots.length; ++i) {
+            if (slots[i] == result.size()) {
+                result.add(elements.get(i));
+            }//end if
+        }//end for
+
+        return (result.size() == elements.size()) ? elements : result;
+    }
+
+    /**
+     * Fans the results of the representatives of a batch back out, to all the
+     * query items of the batch. This {@link BatchResult} must hold the
+     * results of the representatives, in the order of their numbers.
+     * @param queries The query items of the batch.
+     * @param slots The number of every query item, from {@link
+     * #distinct(List, Function)}.
+     * @return A {@link BatchResult} with the result of every query item. It is
+     * this {@link BatchResult} itself, if all the numbers are distinct.
+     */
+    @NotNull BatchResult<T> expand(@NotNull List<T> queries, @NotNull int[]
+            slots) {
+        if (this.queries.size() == queries.size()) {
+            return this;
+        }//end if
+
+        final int[] IDS = new int[queries.size() * this.k];
+        final double[] DISTANCES = new double[IDS.length];
+        for (int q = 0; q < slots.length; ++q) {
+            System.arraycopy(this.ids, slots[q] * this.k, IDS, q * this.k,
+                    this.k);
+            System.arraycopy(this.distances, slots[q] * this.k, DISTANCES,
+                    q * this.k, this.k);
+        }//end for
+
+        return new BatchResult<>(queries, this.items, this.k, IDS, DISTANCES);
+    }
+
+    /**
+     * Answers a batch of query items on the Euclidean distance. The query
+     * items with equal coordinates are answered once, by a selection of their
+     * {@link Vector} each, that run in parallel, and their result is shared.
+     * @param queries The query items.
+     * @param items The reference items, that the selected ids index.
+     * @param k The number of furthest items per query item.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector}.
+     * @param select A {@link Function} that accepts a query {@link Vector} and
+     * returns a {@link TopK} with its k-furthest ids and their squared
+     * distances.
+     * @param context The {@link ExecutionContext} to run the selections on.
+     * @param <T> The type of the items.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     */
+    static <T> @NotNull BatchResult<T> euclidean(@NotNull List<T> queries,
+            @NotNull List<T> items, final int k, @NotNull Function<T, Vector>
+            toVector, @NotNull Function<Vector, TopK> select, @NotNull
+            ExecutionContext context) {
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final List<Vector> VECTORS = new ArrayList<>(QUERIES.size());
+        for (T query : QUERIES) {
+            VECTORS.add(toVector.apply(query));
+        }//end for
+
+        final int[] SLOTS = BatchResult.distinct(VECTORS, VectorKey::exact);
+        final List<T> UNIQUE = BatchResult.representatives(QUERIES, SLOTS);
+        final List<Vector> UNIQUE_VECTORS = BatchResult.representatives(
+                VECTORS, SLOTS);
+        final int[] IDS = new int[UNIQUE.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        context.run(() -> IntStream.range(0, UNIQUE.size())
+                                   .parallel()
+                                   .forEach(q -> BatchResult.fill(select.apply(
+                                           UNIQUE_VECTORS.get(q)), q * k, k,
+                                           IDS, DISTANCES)));
+        BatchResult.sqrt(DISTANCES);
+
+        return new BatchResult<>(UNIQUE, items, k, IDS, DISTANCES).expand(
+                QUERIES, SLOTS);
+    }
+
+    /**
+     * Replaces every squared distance of an array with its square root.
+     * @param sqrDistances The squared distances.
+     */
+    static void sqrt(@NotNull double[] sqrDistances) {
+        for (int i = 0; i < sqrDistances.length; ++i) {
+            sqrDistances[i] = Math.sqrt(sqrDistances[i]);
+        }//end for
+    }
+
+    /**
+     * Gets the number of query items.
+     * @return The number of query items.
+     */
+    public int queryCount() {
+        return this.queries.size();
+    }
+
+    /**
+     * Gets the number of furthest items per query item.
+     * @return The number of furthest items per query item.
+     */
+    public int k() {
+        return this.k;
+    }
+
+    /**
+     * Gets the q-th query item.
+     * @param q The index of the query item.
+     * @return The q-th query item.
+     * @throws IndexOutOfBoundsException If {@code q < 0 || q >=
+     * queryCount()}.
+     */
+    public T query(final int q) {
+        return this.queries.get(q);
+    }
+
+    /**
+     * Gets the number of furthest items found for the q-th query item.
+     * @param q The index of the query item.
+     * @return The number of furthest items found for the q-th query item, in
+     * [0, k()].
+     * @throws IndexOutOfBoundsException If {@code q < 0 || q >=
+     * queryCount()}.
+     */
+    public int count(final int q) {
+        Objects.checkIndex(q, this.queries.size());
+        int count = 0;
+        while (count < this.k && this.ids[q * this.k + count] != -1) {
+            ++count;
+        }//end while
+
+        return count;
+    }
+
+    /**
+     * Gets the id of the i-th furthest item of the q-th query item.
+     * @param q The index of the query item.
+     * @param i The index of the furthest item, in [0, k()).
+     * @return The id of the i-th furthest item, or -1 if it is not found.
+     * @throws IndexOutOfBoundsException If q or i is out of range.
+     */
+    public int id(final int q, final int i) {
+        return this.ids[this.index(q, i)];
+    }
+
+    /**
+     * Gets the distance of the i-th furthest item from the q-th query item.
+     * @param q The index of the query item.
+     * @param i The index of the furthest item, in [0, k()).
+     * @return The distance of the i-th furthest item, or NaN if it is not
+     * found.
+     * @throws IndexOutOfBoundsException If q or i is out of range.
+     */
+    public double distance(final int q, final int i) {
+        return this.distances[this.index(q, i)];
+    }
+
+    /**
+     * Gets the i-th furthest item of the q-th query item.
+     * @param q The index of the query item.
+     * @param i The index of the furthest item, in [0, count(q)).
+     * @return The i-th furthest item.
+     * @throws IndexOutOfBoundsException If q or i is out of range, or if the
+     * i-th furthest item is not found.
+     */
+    public T item(final int q, final int i) {
+        return this.items.get(this.id(q, i));
+    }
+
+    /**
+     * Gets the furthest items of the q-th query item, with their distances.
+     * @param q The index of the query item.
+     * @return A {@link ScoredItems} with the count(q) furthest items of the
+     * q-th query item.
+     * @throws IndexOutOfBoundsException If {@code q < 0 || q >=
+     * queryCount()}.
+     */
+    public @NotNull ScoredItems<T> scored(final int q) {
+        final int COUNT = this.count(q);
+        return new ScoredItems<>(new ArrayList<>(this.results(q)),
+                Arrays.copyOfRange(this.distances, q * this.k, q * this.k +
+                COUNT));
+    }
+
+    /**
+     * Gets the ids of the furthest items, in query-major order. The array is
+     * not copied, so it must not be modified.
+     * @return The ids of the furthest items.
+     */
+    public @NotNull int[] ids() {
+        return this.ids;
+    }
+
+    /**
+     * Gets the distances of the furthest items from their query items, in
+     * query-major order. The array is not copied, so it must not be modified.
+     * @return The distances of the furthest items.
+     */
+    public @NotNull double[] distances() {
+        return this.distances;
+    }
+
+    /**
+     * Gets an unmodifiable {@link Map} view of this {@link BatchResult}, that
+     * accepts a query item and returns a {@link List} with its furthest
+     * items. Only the query items are hashed, once, on the 1st call; the
+     * {@link List}s resolve their items on access. If a query item appears
+     * more than once, the {@link Map} has the results of its last
+     * appearance.
+     * @return A {@link Map} view of this {@link BatchResult}.
+     */
+    public @NotNull Map<T, List<T>> asMap() {
+        if (this.map == null) {
+            final Map<T, Integer> INDICES = new HashMap<>();
+            for (int q = 0; q < this.queries.size(); ++q) {
+                INDICES.put(this.queries.get(q), q);
+            }//end for
+
+            this.map = new AbstractMap<>() {
+
+                @Override
+                public List<T> get(Object key) {
+                    final Integer Q = INDICES.get(key);
+                    return (Q == null) ? null : BatchResult.this.results(Q);
+                }
+
+                @Override
+                public boolean containsKey(Object key) {
+                    return INDICES.containsKey(key);
+                }
+
+                @Override
+                public int size() {
+                    return INDICES.size();
+                }
+
+                @Override
+                public @NotNull Set<Entry<T, List<T>>> entrySet() {
+                    return new AbstractSet<>() {
+
+                        @Override
+                        public @NotNull Iterator<Entry<T, List<T>>>
+                                iterator() {
+                            final Iterator<Map.Entry<T, Integer>> ITR =
+                                    INDICES.entrySet().iterator();
+                            return new Iterator<>() {
+
+                                @Override
+                                public boolean hasNext() {
+                                    return ITR.hasNext();
+                                }
+
+                                @Override
+                                public Entry<T, List<T>> next() {
+                                    final Map.Entry<T, Integer> E = ITR.next();
+                                    return new SimpleImmutableEntry<>(
+                                            E.getKey(), BatchResult.this
+                                            .results(E.getValue()));
+                                }
+
+                            };
+                        }
+
+                        @Override
+                        public int size() {
+                            return INDICES.size();
+                        }
+
+                    };
+                }
+
+            };
+        }//end if
+
+        return this.map;
+    }
+
+    /**
+     * Gets a {@link List} view with the furthest items of the q-th query
+     * item.
+     */
+    private @NotNull List<T> results(final int q) {
+        final int COUNT = this.count(q);
+        return new AbstractList<>() {
+
+            @Override
+            public T get(int i) {
+                Objects.checkIndex(i, COUNT);
+                return BatchResult.this.item(q, i);
+            }
+
+            @Override
+            public int size() {
+                return COUNT;
+            }
+
+        };
+    }
+
+    private int index(final int q, final int i) {
+        Objects.checkIndex(q, this.queries.size());
+        Objects.checkIndex(i, this.k);
+        return q * this.k + i;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchResult - queries: %d - k: %d",
+                this.queries.size(), this.k);
+    }
+
+}//end class BatchResult
\ No newline at end of file
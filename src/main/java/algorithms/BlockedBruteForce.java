@@ -0,0 +1,371 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.TopK;
+import util.Vector;
+import util.VectorKey;
+import util.VectorStore;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem using brute
+ * force, on the Euclidean distance. It is meant for large batches of query
+ * items. The squared distances are expanded as ||q||^2 + ||x||^2 - 2q * x, the
+ * norms are computed once and the dot products are computed in tiles of query
+ * and reference items, so that a tile of reference items is read from the
+ * cache by all the query items of a tile.
+ * @param <T> The type of the items.
+ */
+public class BlockedBruteForce<T> implements FurthestItems<T> {
+
+    /**
+     * The number of query items of a tile.
+     */
+    private static final int QUERY_BLOCK = 64;
+
+    /**
+     * The number of doubles that a tile may touch, i.e. the coordinates of
+     * its query and reference items plus its dot products. It keeps a whole
+     * tile inside a typical L2 cache of 256 KB.
+     */
+    private static final int TILE_LENGTH = 1 << 15;
+
+    /**
+     * The dot products of a tile, for every thread, to be reused by all the
+     * tiles that the thread computes.
+     */
+    private static final ThreadLocal<double[]> TILE = ThreadLocal.withInitial(
+            () -> new double[TILE_LENGTH]);
+
+    /**
+     * A {@link List} with the reference items this {@link BlockedBruteForce}
+     * runs on. The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * A {@link VectorStore} with the {@link Vector} representations of the
+     * reference items, addressed by their ids.
+     */
+    private @NotNull VectorStore store;
+
+    /**
+     * The squared 2-norms of the reference items, addressed by their ids.
+     */
+    private @NotNull double[] sqrNorms;
+
+    /**
+     * A {@link Function} that accepts an item and returns its {@link Vector}
+     * representation.
+     */
+    private @NotNull Function<T, Vector> toVector;
+
+    /**
+     * The precision that the {@link VectorStore} stores the coordinates in.
+     */
+    private @NotNull VectorStore.Precision precision;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * BlockedBruteForce} runs on.
+     */
+    private @NotNull ExecutionContext context = ExecutionContext.common();
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a {@link BlockedBruteForce}, ready to accept queries. The
+     * coordinates are stored in double precision.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public BlockedBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector) {
+        this(universe, toVector, VectorStore.Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link BlockedBruteForce}, ready to accept queries.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param precision The precision that the coordinates are stored in.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public BlockedBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, @NotNull VectorStore.Precision
+            precision) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.toVector = toVector;
+        this.precision = precision;
+        this.setItems(universe);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in tiles, in parallel.
+     * @param query A {@link Collection} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link Map} that accepts an item of the query and returns a
+     * {@link Collection} with its k-furthest items.
+     * @throws IllegalArgumentException If {@code query.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Map<T, ? extends Collection<T>> find(@NotNull Collection<T>
+            query, final int k) {
+        if (query.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection query " +
+                    "can't be empty.");
+        }//end if
+
+        return this.findBatch(new ArrayList<>(query), k).asMap();
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in tiles, in parallel.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final List<Vector> VECTORS = new ArrayList<>(QUERIES.size());
+        for (T query : QUERIES) {
+            VECTORS.add(this.toVector.apply(query));
+        }//end for
+
+        //Query items with equal coordinates are answered once
+        final int[] SLOTS = BatchResult.distinct(VECTORS, VectorKey::exact);
+        final List<T> UNIQUE = BatchResult.representatives(QUERIES, SLOTS);
+        final VectorStore QUERY_STORE = VectorStore.of(
+                BatchResult.representatives(VECTORS, SLOTS),
+                Function.identity());
+        final double[] QUERY_SQR_NORMS = new double[UNIQUE.size()];
+        for (int q = 0; q < QUERY_SQR_NORMS.length; ++q) {
+            QUERY_SQR_NORMS[q] = QUERY_STORE.sqrNorm(q);
+        }//end for
+
+        final int BLOCKS = (UNIQUE.size() - 1) / QUERY_BLOCK + 1;
+        final int[] IDS = new int[UNIQUE.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        this.context.run(() -> IntStream.range(0, BLOCKS)
+                                        .parallel()
+                                        .forEach(b -> this.findBlock(UNIQUE,
+                                                QUERY_STORE, QUERY_SQR_NORMS,
+                                                b, k, IDS, DISTANCES)));
+        BatchResult.sqrt(DISTANCES);
+
+        return new BatchResult<>(UNIQUE, this.items, k, IDS, DISTANCES)
+                .expand(QUERIES, SLOTS);
+    }
+
+    /**
+     * Finds the k-furthest ids of the b-th block of query items and writes
+     * them, with their squared distances, to the slots of the block.
+     */
+    private void findBlock(@NotNull List<T> queries, @NotNull VectorStore
+            queryStore, @NotNull double[] querySqrNorms, final int b, final int
+            k, @NotNull int[] ids, @NotNull double[] distances) {
+        final int DIMENSIONS = this.store.dimensions();
+        //Every reference item of the tile brings its coordinates and a column
+        //of dot products, next to the coordinates of the query items
+        final int ITEM_BLOCK = Math.max(1, (TILE_LENGTH - QUERY_BLOCK *
+                DIMENSIONS) / (DIMENSIONS + QUERY_BLOCK));
+        final int Q_FROM = b * QUERY_BLOCK;
+        final int Q_TO = Math.min(queries.size(), Q_FROM + QUERY_BLOCK);
+        final TopK[] FURTHEST = new TopK[Q_TO - Q_FROM];
+        for (int q = 0; q < FURTHEST.length; ++q) {
+            FURTHEST[q] = new TopK(k);
+        }//end for
+
+        final double[] TILE = BlockedBruteForce.TILE.get();
+        for (int from = 0; from < this.store.size(); from += ITEM_BLOCK) {
+            final int TO = Math.min(this.store.size(), from + ITEM_BLOCK);
+            this.store.dotProducts(queryStore, Q_FROM, Q_TO, from, TO, TILE);
+            for (int q = Q_FROM; q < Q_TO; ++q) {
+                final int ROW = (q - Q_FROM) * (TO - from) - from;
+                for (int id = from; id < TO; ++id) {
+                    FURTHEST[q - Q_FROM].offer(id, querySqrNorms[q] +
+                            this.sqrNorms[id] - 2.0 * TILE[ROW + id]);
+                }//end for
+            }//end for
+        }//end for
+
+        //The expanded form can be slightly negative, due to rounding
+        for (int q = Q_FROM; q < Q_TO; ++q) {
+            BatchResult.fill(FURTHEST[q - Q_FROM], q * k, k, ids, distances);
+            for (int i = q * k; i < (q + 1) * k; ++i) {
+                distances[i] = Math.max(0.0, distances[i]);
+            }//end for
+        }//end for
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+        return this.toItems(this.select(query, k));
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+        return ScoredItems.of(this.select(query, k), this.items, true);
+    }
+
+    /**
+     * Iterates over the reference items, in descending order of their
+     * Euclidean distances from a query item. The distances are computed once,
+     * and the items are handed out by a heap over them, in logarithmic time
+     * each.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over all the reference items, from
+     * the furthest to the nearest.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        final double[] DISTANCES = new double[this.store.size()];
+        this.store.sqrDistances(this.toVector.apply(query), 0,
+                DISTANCES.length, DISTANCES);
+        return new HeapIterator<>(this.items, DISTANCES, true);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query item, with their squared
+     * distances.
+     */
+    private @NotNull TopK select(@NotNull T query, final int k) {
+        final Vector Q = this.toVector.apply(query);
+        final double[] DISTANCES = new double[this.store.size()];
+        this.store.sqrDistances(Q, 0, DISTANCES.length, DISTANCES);
+
+        TopK topK = TopK.local(k);
+        topK.offerAll(DISTANCES, DISTANCES.length, 0);
+        return topK;
+    }
+
+    /**
+     * Sets the reference items of this {@link BlockedBruteForce}.
+     * @param universe A {@link Collection} with the new reference items.
+     * @throws IllegalArgumentException If the given {@link Collection} is
+     * empty.
+     */
+    public void setUniverse(@NotNull Collection<T> universe) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.setItems(universe);
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@link Vector} from an item.
+     * @param toVector A {@link Function} that extracts a {@link Vector} from an
+     * item.
+     */
+    public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
+        this.toVector = toVector;
+        this.setItems(this.items);
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * BlockedBruteForce} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    private void setItems(@NotNull Collection<T> universe) {
+        this.items = new ArrayList<>(universe);
+        this.store = VectorStore.of(this.items, this.toVector, this.precision);
+        this.sqrNorms = new double[this.store.size()];
+        this.context.run(() -> IntStream.range(0, this.store.size())
+                                        .parallel()
+                                        .forEach(id -> this.sqrNorms[id] =
+                                                this.store.sqrNorm(id)));
+        ++this.version;
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    private @NotNull List<T> toItems(@NotNull TopK topK) {
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Blocked Brute Force - precision: %s",
+                this.precision);
+    }
+
+}//end class BlockedBruteForce
\ No newline at end of file
@@ -0,0 +1,72 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * The result of a query with a time budget. It holds the best furthest items
+ * that were found before the budget ran out, and whether the algorithm
+ * finished its work. A complete result has the usual guarantee of its
+ * algorithm, i.e. it is exact for an exact algorithm. An incomplete one is
+ * only the best among the items that were examined, so it may also hold less
+ * than k items.
+ * @param <T> The type of the items.
+ */
+public final class BoundedResult<T> {
+
+    /**
+     * The best furthest items found, with their distances.
+     */
+    private final @NotNull ScoredItems<T> scored;
+
+    /**
+     * Indicates if the algorithm finished its work, within the time budget.
+     */
+    private final boolean complete;
+
+    /**
+     * Creates a {@link BoundedResult}.
+     * @param scored The best furthest items found, with their distances.
+     * @param complete True if the algorithm finished its work, otherwise
+     * false.
+     */
+    BoundedResult(@NotNull ScoredItems<T> scored, final boolean complete) {
+        this.scored = scored;
+        this.complete = complete;
+    }
+
+    /**
+     * Gets the best furthest items found, with their distances.
+     * @return A {@link ScoredItems} with the best furthest items found, in
+     * descending order of their distances.
+     */
+    public @NotNull ScoredItems<T> scored() {
+        return this.scored;
+    }
+
+    /**
+     * Gets the best furthest items found.
+     * @return An unmodifiable {@link List} with the best furthest items found,
+     * in descending order of their distances.
+     */
+    public @NotNull List<T> items() {
+        return this.scored.items();
+    }
+
+    /**
+     * Checks if the algorithm finished its work, within the time budget.
+     * @return True if the result has the usual guarantee of its algorithm,
+     * otherwise false.
+     */
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BoundedResult - size: %d - complete: %b",
+                this.scored.size(), this.complete);
+    }
+
+}//end class BoundedResult
\ No newline at end of file
@@ -0,0 +1,37 @@
+package algorithms;
+
+/**
+ * The slack of the upper and lower bounds of the exact pruning algorithms.
+ * Every bound is computed with rounding errors, so it is raised, or lowered,
+ * by a relative amount, that is far larger than those errors, so that no
+ * furthest item is ever pruned, and far smaller than the gaps between the
+ * distances, so that the pruning stays as strong.
+ */
+final class Bounds {
+
+    /**
+     * The relative amount that the bounds are raised, or lowered, by.
+     */
+    static final double SLACK = 1e-9;
+
+    private Bounds() {}
+
+    /**
+     * Raises an upper bound by the slack.
+     * @param bound The upper bound.
+     * @return The raised upper bound.
+     */
+    static double raise(final double bound) {
+        return bound * (1.0 + SLACK);
+    }
+
+    /**
+     * Lowers a lower bound by the slack.
+     * @param bound The lower bound.
+     * @return The lowered lower bound.
+     */
+    static double lower(final double bound) {
+        return bound / (1.0 + SLACK);
+    }
+
+}//end class Bounds
\ No newline at end of file
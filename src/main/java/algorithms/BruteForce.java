@@ -1,10 +1,18 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
+import util.Deadline;
+import util.ExecutionContext;
+import util.ParallelTopK;
+import util.Selection;
+import util.TopK;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
 
 /**
  * An exact algorithm, that solves the k-furthest items problem using brute
@@ -14,10 +22,16 @@ import java.util.function.ToDoubleBiFunction;
 public class BruteForce<T> implements FurthestItems<T> {
 
     /**
-     * A {@link Collection} with the reference items this {@link BruteForce}
-     * runs on.
+     * The number of distances that are computed between 2 checks of a {@link
+     * Deadline}.
      */
-    private @NotNull Collection<T> universe;
+    private static final int DEADLINE_INTERVAL = 256;
+
+    /**
+     * A {@link List} with the reference items this {@link BruteForce} runs on.
+     * The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
 
     /**
      * A {@link ToDoubleBiFunction} with the properties of a premetric, to
@@ -25,6 +39,29 @@ public class BruteForce<T> implements FurthestItems<T> {
      */
     private @NotNull ToDoubleBiFunction<T, T> distFunction;
 
+    /**
+     * The number of reference items, above which a single query is answered
+     * in parallel.
+     */
+    private int parallelThreshold = ParallelTopK.DEFAULT_THRESHOLD;
+
+    /**
+     * The {@link Selection} strategy that the furthest items are selected
+     * with.
+     */
+    private @NotNull Selection selection = Selection.AUTO;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * BruteForce} runs on.
+     */
+    private @NotNull ExecutionContext context = ExecutionContext.common();
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
     /**
      * Creates a {@link BruteForce}, ready to accept queries.
      * @param universe A {@link Collection} with the reference items.
@@ -39,7 +76,7 @@ public class BruteForce<T> implements FurthestItems<T> {
                     "can't be empty.");
         }//end if
 
-        this.universe = universe;
+        this.setItems(universe);
         this.distFunction = distFunction;
     }
 
@@ -52,19 +89,215 @@ public class BruteForce<T> implements FurthestItems<T> {
      * @param k The number of furthest items to find.
      * @return A {@link Collection} with all the k-furthest items, from the
      * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
      */
     @Override
     public @NotNull Collection<T> find(@NotNull T query, final int k) {
-        return FurthestItems.maxK(this.universe, Comparator.comparingDouble(v ->
-                this.distFunction.applyAsDouble(v, query)), k);
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        TopK topK = this.select(query, k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        return ScoredItems.of(this.select(query, k), this.items, false);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, before a {@link
+     * Deadline}. The scan is checked against the {@link Deadline} every few
+     * distance computations, and when it passes, the best items of the
+     * scanned ones are returned.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with the best furthest items found, in
+     * descending order of their distances, that is complete if the whole
+     * universe was scanned.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BoundedResult<T> findWithin(@NotNull T query, final int k,
+            @NotNull Deadline deadline) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        final TopK TOP_K;
+        final AtomicBoolean EXPIRED = new AtomicBoolean();
+        if (ParallelTopK.isWorthIt(this.items.size(), this.parallelThreshold,
+                this.context)) {
+            TOP_K = ParallelTopK.select(this.items.size(), k, this.context,
+                    (from, to, t) -> {
+                        if (!this.offer(query, from, to, t, deadline)) {
+                            EXPIRED.set(true);
+                        }//end if
+                    });
+        } else {
+            TOP_K = new TopK(k);
+            EXPIRED.set(!this.offer(query, 0, this.items.size(), TOP_K,
+                    deadline));
+        }//end if
+
+        return new BoundedResult<>(ScoredItems.of(TOP_K, this.items, false),
+                !EXPIRED.get());
+    }
+
+    /**
+     * Iterates over the reference items, in descending order of their
+     * distances from a query item. The distances are computed once, and the
+     * items are handed out by a heap over them, in logarithmic time each.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over all the reference items, from
+     * the furthest to the nearest.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        return new HeapIterator<>(this.items, this.distances(query,
+                ParallelTopK.isWorthIt(this.items.size(),
+                this.parallelThreshold, this.context)), false);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final int[] IDS = new int[QUERIES.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        this.context.run(() -> IntStream.range(0, QUERIES.size())
+                                        .parallel()
+                                        .forEach(q -> BatchResult.fill(
+                                                this.select(QUERIES.get(q), k),
+                                                q * k, k, IDS, DISTANCES)));
+
+        return new BatchResult<>(QUERIES, this.items, k, IDS, DISTANCES);
     }
 
     /**
-     * Sets the reference items of this {@link BruteForce}.
+     * Selects the k-furthest ids from a query item, with their distances.
+     */
+    private @NotNull TopK select(@NotNull T query, final int k) {
+        //Every distance is computed exactly once, instead of on every
+        //comparison of the selection
+        final boolean PARALLEL = ParallelTopK.isWorthIt(this.items.size(),
+                this.parallelThreshold, this.context);
+        if (this.selection.resolve(this.items.size(), k) ==
+                Selection.QUICKSELECT) {
+            final double[] DISTANCES = this.distances(query, PARALLEL);
+            return Selection.QUICKSELECT.select(DISTANCES, DISTANCES.length, k);
+        }//end if
+
+        if (PARALLEL) {
+            return ParallelTopK.select(this.items.size(), k, this.context,
+                    (from, to, t) -> this.offer(query, from, to, t));
+        }//end if
+
+        //The distance function may run selections of its own, which would
+        //reset the TopK of the current thread
+        TopK topK = new TopK(k);
+        this.offer(query, 0, this.items.size(), topK);
+        return topK;
+    }
+
+    /**
+     * Computes the distances of all the reference items from a query item, by
+     * id.
+     */
+    private @NotNull double[] distances(@NotNull T query, final boolean
+            parallel) {
+        final double[] DISTANCES = new double[this.items.size()];
+        if (parallel) {
+            this.context.run(() -> IntStream.range(0, DISTANCES.length)
+                                            .parallel()
+                                            .forEach(id -> DISTANCES[id] =
+                                                    this.distance(id, query)));
+        } else {
+            for (int id = 0; id < DISTANCES.length; ++id) {
+                DISTANCES[id] = this.distance(id, query);
+            }//end for
+        }//end if
+
+        return DISTANCES;
+    }
+
+    private void offer(@NotNull T query, final int from, final int to,
+            @NotNull TopK topK) {
+        for (int id = from; id < to; ++id) {
+            topK.offer(id, this.distance(id, query));
+        }//end for
+    }
+
+    /**
+     * Offers a range of ids to a {@link TopK}, until a {@link Deadline}
+     * passes. Returns true if the whole range was offered.
+     */
+    private boolean offer(@NotNull T query, final int from, final int to,
+            @NotNull TopK topK, @NotNull Deadline deadline) {
+        for (int i = from; i < to; i += DEADLINE_INTERVAL) {
+            if (deadline.isExpired()) {
+                return false;
+            }//end if
+            this.offer(query, i, Math.min(to, i + DEADLINE_INTERVAL), topK);
+        }//end for
+
+        return true;
+    }
+
+    private double distance(final int id, @NotNull T query) {
+        return this.distFunction.applyAsDouble(this.items.get(id), query);
+    }
+
+    /**
+     * Sets the reference items of this {@link BruteForce}. The items are
+     * copied, so later changes to the given {@link Collection} are not seen.
      * @param universe A {@link Collection} with the new reference items.
      */
     public void setUniverse(@NotNull Collection<T> universe) {
-        this.universe = universe;
+        this.setItems(universe);
     }
 
     /**
@@ -75,6 +308,81 @@ public class BruteForce<T> implements FurthestItems<T> {
     public void setDistFunction(@NotNull ToDoubleBiFunction<T, T>
             distFunction) {
         this.distFunction = distFunction;
+        ++this.version;
+    }
+
+    /**
+     * Sets the number of reference items, above which a single query is
+     * answered in parallel, on the {@link ExecutionContext} of this instance.
+     * Queries that run on a thread of another {@link
+     * java.util.concurrent.ForkJoinPool}, or inside a parallel task that
+     * already keeps the pool busy, are answered sequentially.
+     * @param parallelThreshold The number of reference items, above which a
+     * single query is answered in parallel. {@link Integer#MAX_VALUE} disables
+     * the parallel mode.
+     * @throws IllegalArgumentException If {@code parallelThreshold < 0}.
+     */
+    public void setParallelThreshold(final int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Argument parallelThreshold " +
+                    "must be >= 0.");
+        }//end if
+
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Gets the number of reference items, above which a single query is
+     * answered in parallel.
+     * @return The number of reference items, above which a single query is
+     * answered in parallel.
+     */
+    public int getParallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    /**
+     * Sets the {@link Selection} strategy that the furthest items are selected
+     * with. {@link Selection#AUTO} chooses it by the ratio of k to the number
+     * of reference items, on every query.
+     * @param selection The {@link Selection} strategy.
+     */
+    public void setSelection(@NotNull Selection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Gets the {@link Selection} strategy that the furthest items are selected
+     * with.
+     * @return The {@link Selection} strategy.
+     */
+    public @NotNull Selection getSelection() {
+        return this.selection;
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * BruteForce} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    private void setItems(@NotNull Collection<T> universe) {
+        this.items = new ArrayList<>(universe);
+        ++this.version;
     }
 
     @Override
@@ -0,0 +1,311 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.TopK;
+import util.Vector;
+import util.VectorStore;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem using brute
+ * force with pruning, on the Euclidean distance. The reference items are
+ * sorted once, in descending order of their distances r from their center c.
+ * By the triangle inequality, an item x is at most d(q, c) + r(x) away from a
+ * query q, so the scan stops as soon as that bound falls below the k-th
+ * furthest distance found so far. The answers are identical to the ones of
+ * {@link StoreBruteForce}, and on concentrated data most queries end after a
+ * small prefix of the items.
+ * @param <T> The type of the items.
+ */
+public class CenterPrunedBruteForce<T> implements FurthestItems<T> {
+
+    /**
+     * The number of distances that are computed in bulk, between 2 checks of
+     * the bound.
+     */
+    private static final int BLOCK = 256;
+
+    /**
+     * A {@link List} with the reference items, in descending order of their
+     * distances from their center. The id of every item is its index in this
+     * {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * A {@link VectorStore} with the {@link Vector} representations of the
+     * reference items, addressed by their ids.
+     */
+    private @NotNull VectorStore store;
+
+    /**
+     * The distances of the reference items from their center, by id, in
+     * descending order.
+     */
+    private @NotNull double[] radii;
+
+    /**
+     * The center of the reference items.
+     */
+    private @NotNull Vector center;
+
+    /**
+     * A {@link Function} that accepts an item and returns its {@link Vector}
+     * representation.
+     */
+    private @NotNull Function<T, Vector> toVector;
+
+    /**
+     * The precision that the {@link VectorStore} stores the coordinates in.
+     */
+    private @NotNull VectorStore.Precision precision;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * CenterPrunedBruteForce} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a {@link CenterPrunedBruteForce}, ready to accept queries. The
+     * coordinates are stored in double precision.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public CenterPrunedBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector) {
+        this(universe, toVector, VectorStore.Precision.DOUBLE,
+                ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link CenterPrunedBruteForce}, ready to accept queries. The
+     * distances from the center are computed on the given {@link
+     * ExecutionContext}, which the queries then run on too, unless {@link
+     * #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param precision The precision that the coordinates are stored in.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public CenterPrunedBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, @NotNull VectorStore.Precision
+            precision, @NotNull ExecutionContext context) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.toVector = toVector;
+        this.precision = precision;
+        this.context = context;
+        this.setItems(universe);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        TopK topK = this.select(this.toVector.apply(query), k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        return ScoredItems.of(this.select(this.toVector.apply(query), k),
+                this.items, true);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel, and the ones with equal
+     * coordinates are answered once.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        return BatchResult.euclidean(queries, this.items, k, this.toVector,
+                query -> this.select(query, k), this.context);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query {@link Vector}, with their
+     * squared distances. The items are scanned in blocks, in descending order
+     * of their distances from the center, until the bound of the next block
+     * can't beat the k-th furthest distance.
+     */
+    private @NotNull TopK select(@NotNull Vector query, final int k) {
+        final double QUERY_RADIUS = Vector.distance(query, this.center);
+        final int SIZE = this.store.size();
+        final double[] DISTANCES = new double[Math.min(BLOCK, SIZE)];
+        TopK topK = TopK.local(k);
+        for (int from = 0; from < SIZE; from += BLOCK) {
+            //The 1st item of a block has the largest radius in it and after it
+            final double BOUND = Bounds.raise(QUERY_RADIUS +
+                    this.radii[from]);
+            if (BOUND * BOUND < topK.threshold()) {
+                break;
+            }//end if
+
+            final int TO = Math.min(SIZE, from + BLOCK);
+            this.store.sqrDistances(query, from, TO, DISTANCES);
+            topK.offerAll(DISTANCES, TO - from, from);
+        }//end for
+
+        return topK;
+    }
+
+    /**
+     * Sets the reference items of this {@link CenterPrunedBruteForce}.
+     * @param universe A {@link Collection} with the new reference items.
+     * @throws IllegalArgumentException If the given {@link Collection} is
+     * empty.
+     */
+    public void setUniverse(@NotNull Collection<T> universe) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.setItems(universe);
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@link Vector} from an item.
+     * @param toVector A {@link Function} that extracts a {@link Vector} from an
+     * item.
+     */
+    public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
+        this.toVector = toVector;
+        this.setItems(this.items);
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * CenterPrunedBruteForce} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Sorts the reference items in descending order of their distances from
+     * their center, and stores them in that order.
+     */
+    private void setItems(@NotNull Collection<T> universe) {
+        final List<T> UNSORTED = new ArrayList<>(universe);
+        final VectorStore UNSORTED_STORE = VectorStore.of(UNSORTED,
+                this.toVector, this.precision);
+        final Vector CENTER = UNSORTED_STORE.center();
+        final double[] UNSORTED_RADII = new double[UNSORTED.size()];
+        this.context.run(() -> IntStream.range(0, UNSORTED_RADII.length)
+                                        .parallel()
+                                        .forEach(id -> UNSORTED_RADII[id] =
+                                                Math.sqrt(UNSORTED_STORE
+                                                .sqrDistance(id, CENTER))));
+
+        final int[] ORDER = IntStream.range(0, UNSORTED.size())
+                                     .boxed()
+                                     .sorted(Comparator.comparingDouble(
+                                             (Integer id) ->
+                                                     UNSORTED_RADII[id])
+                                                       .reversed())
+                                     .mapToInt(Integer::intValue)
+                                     .toArray();
+
+        final List<T> ITEMS = new ArrayList<>(ORDER.length);
+        final VectorStore STORE = new VectorStore(ORDER.length,
+                UNSORTED_STORE.dimensions(), this.precision);
+        final double[] RADII = new double[ORDER.length];
+        for (int id = 0; id < ORDER.length; ++id) {
+            ITEMS.add(UNSORTED.get(ORDER[id]));
+            STORE.set(id, UNSORTED_STORE.get(ORDER[id]));
+            RADII[id] = UNSORTED_RADII[ORDER[id]];
+        }//end for
+
+        this.items = ITEMS;
+        this.store = STORE;
+        this.radii = RADII;
+        this.center = CENTER;
+        ++this.version;
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Center Pruned Brute Force - precision: %s",
+                this.precision);
+    }
+
+}//end class CenterPrunedBruteForce
\ No newline at end of file
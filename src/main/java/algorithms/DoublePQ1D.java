@@ -1,114 +1,91 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
+import util.ExecutionContext;
+import util.IndexHeap;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.ToDoubleFunction;
-import java.util.stream.Collectors;
-
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem on
+ * 1-dimensional data, with two priority queues. The furthest items from a
+ * query value are always among the smallest and the largest values, so a
+ * min-heap and a max-heap of the ids hand them out, and a query merges the two
+ * by their distances from its value. The heaps are built in linear time and
+ * polled lazily, by all the queries together: the ids that they hand out are
+ * kept at the two ends of a shared array, in ascending order of their values,
+ * so that a query only polls the ids that no query has asked for yet, and the
+ * universe is never fully sorted, unless it is asked for. The items with NaN
+ * values come out last.
+ * @param <T> The type of the items.
+ */
 public class DoublePQ1D<T> implements FurthestItems<T> {
 
-    private class Wrapper implements Comparable<Wrapper> {
-
-        final @NotNull T ITEM;
-        final @NotNull Comparator<T> COMP;
-
-        Wrapper(@NotNull T item, @NotNull Comparator<T> comp) {
-            this.ITEM = item;
-            this.COMP = comp;
-        }
-
-        @Override
-        public int compareTo(@NotNull Wrapper o) {
-            return this.COMP.compare(this.ITEM, o.ITEM);
-        }
-
-    }//end inner class Wrapper
-
-    private class Bucket implements AutoCloseable {
-
-        final double QUERY_VALUE;
-        final int K;
-        @NotNull Collection<T> furthest;
-        @Nullable Queue<T> minQ = new LinkedList<>();
-        @Nullable Queue<T> maxQ = new LinkedList<>();
-
-        public Bucket(@NotNull T query, final int k) {
-            this.QUERY_VALUE = DoublePQ1D.this.toDouble.applyAsDouble(query);
-            this.K = k;
-            this.furthest = new ArrayList<>(k);
-        }
-
-        void add(@NotNull T min, @NotNull T max) {
-            if (this.furthest.size() + this.minQ.size() < this.K) {
-                this.minQ.add(min);
-            }//end if
-            if (this.furthest.size() + this.maxQ.size() < this.K) {
-                this.maxQ.add(max);
-            }//end if
-            this.next();
-        }
-
-        void next() {
-            final double D_MIN = Math.abs(this.QUERY_VALUE -
-                    DoublePQ1D.this.toDouble.applyAsDouble(
-                    this.minQ.element()));
-            final double D_MAX = Math.abs(this.QUERY_VALUE -
-                    DoublePQ1D.this.toDouble.applyAsDouble(
-                    this.maxQ.element()));
-
-            if (D_MIN > D_MAX) {
-                this.furthest.add(this.minQ.remove());
-            } else {
-                this.furthest.add(this.maxQ.remove());
-            }//end if
-        }
-
-        @Override
-        public void close() {
-            //There is no need to carry the queues. We avoid calling clear(),
-            //for immediate performance reasons, although makes the GC work
-            //harder
-            this.minQ = null;
-            this.maxQ = null;
-        }
-
-        @Override
-        public String toString() {
-            return this.furthest.toString();
-        }
-
-    }//end inner class Bucket
-
-    private class TransitiveMap extends AbstractMap<T, Collection<T>> {
-
-        @NotNull Map<T, Bucket> wrappedItems;
-        @Nullable Set<Entry<T, Collection<T>>> entries;
-
-        TransitiveMap(@NotNull Map<T, Bucket> wrappedItems) {
-            this.wrappedItems = wrappedItems;
-        }
-
-        @Override
-        public @NotNull Set<Entry<T, Collection<T>>> entrySet() {
-            if (null == this.entries) {
-                this.entries = this.wrappedItems.entrySet()
-                        .stream()
-                        .map(e -> new AbstractMap.SimpleEntry<>(e.getKey(),
-                                e.getValue().furthest))
-                        .collect(Collectors.toUnmodifiableSet());
-            }//end if
-
-            return this.entries;
-        }
-
-    }//end inner class TransitiveMap
-
-    private @NotNull ToDoubleFunction<T> toDouble;
-    private @NotNull PriorityQueue<Wrapper> minPQ;
-    private @NotNull PriorityQueue<Wrapper> maxPQ;
+    /**
+     * The reference items. The id of every item is its index in this {@link
+     * List}.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * The values of the reference items, by id.
+     */
+    private final @NotNull double[] values;
+
+    private final @NotNull ToDoubleFunction<T> toDouble;
+
+    /**
+     * A max-heap of the ids, by their values.
+     */
+    private final @NotNull IndexHeap maxHeap;
+
+    /**
+     * A min-heap of the ids, by their values, i.e. a max-heap by their negated
+     * values.
+     */
+    private final @NotNull IndexHeap minHeap;
+
+    /**
+     * The ids of the items with NaN values, which are in none of the heaps'
+     * prefixes that are handed out.
+     */
+    private final @NotNull int[] nanIds;
+
+    /**
+     * The ids of the items with numeric values, in ascending order of their
+     * values, as far as they are known. The 1st low ones are polled from the
+     * min-heap, and the last high ones from the max-heap.
+     */
+    private final @NotNull int[] sorted;
+
+    /**
+     * Marks the ids that are polled from either heap, so that the other one
+     * skips them.
+     */
+    private final @NotNull boolean[] polled;
+
+    /**
+     * Guards the heaps and the growth of the known ends of sorted.
+     */
+    private final @NotNull Object lock = new Object();
+
+    /**
+     * The number of known ids at the low end of sorted.
+     */
+    private volatile int low;
+
+    /**
+     * The number of known ids at the high end of sorted.
+     */
+    private volatile int high;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * DoublePQ1D} runs on.
+     */
+    private @NotNull ExecutionContext context = ExecutionContext.common();
 
     public DoublePQ1D(@NotNull Collection<T> universe, @NotNull
             ToDoubleFunction<T> toDouble) {
@@ -117,14 +94,26 @@ public class DoublePQ1D<T> implements FurthestItems<T> {
                     "can't be empty.");
         }//end if
 
+        //The values are computed once, so that the heaps do not call toDouble
+        //on every comparison
+        this.items = new ArrayList<>(universe);
+        this.values = new double[this.items.size()];
+        final double[] NEGATED = new double[this.values.length];
+        for (int id = 0; id < this.values.length; ++id) {
+            this.values[id] = toDouble.applyAsDouble(this.items.get(id));
+            NEGATED[id] = -this.values[id];
+        }//end for
+
+        final double[] VALUES = this.values;
+        this.nanIds = IntStream.range(0, VALUES.length)
+                               .filter(id -> Double.isNaN(VALUES[id]))
+                               .toArray();
+        this.sorted = new int[VALUES.length - this.nanIds.length];
+        this.polled = new boolean[VALUES.length];
+        //NaN values come out last of both heaps, so they are never polled
+        this.maxHeap = new IndexHeap(VALUES);
+        this.minHeap = new IndexHeap(NEGATED);
         this.toDouble = toDouble;
-        this.minPQ = new PriorityQueue<>(universe.stream()
-                .map(i -> new Wrapper(i, Comparator.comparingDouble(toDouble)))
-                .collect(Collectors.toList()));
-        this.maxPQ = new PriorityQueue<>(universe.stream()
-                .map(i -> new Wrapper(i, Comparator.comparingDouble(toDouble)
-                                                   .reversed()))
-                .collect(Collectors.toList()));
     }
 
     @Override
@@ -135,54 +124,200 @@ public class DoublePQ1D<T> implements FurthestItems<T> {
                     "can't be empty.");
         }//end if
 
-        if (k < 1 || k > this.minPQ.size()) {
-            throw new IllegalArgumentException("Argument k must be in range " +
-                    "[1, universe.size()].");
+        return this.findBatch(new ArrayList<>(query), k).asMap();
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel, and the ones with equal values
+     * are answered once.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
         }//end if
 
-        Map<T, Bucket> buckets = new ConcurrentHashMap<>(query.size());
-        List<Wrapper> minBuffer = new ArrayList<>(k);
-        List<Wrapper> maxBuffer = new ArrayList<>(k);
-        for (int i = 1; i <= k; ++i) {
-            final Wrapper MIN = this.minPQ.remove();
-            final Wrapper MAX = this.maxPQ.remove();
-            minBuffer.add(MIN);
-            maxBuffer.add(MAX);
-            query.parallelStream()
-                 .forEach(q -> buckets.computeIfAbsent(q, key -> new Bucket(key,
-                            k))
-                                      .add(MIN.ITEM, MAX.ITEM));
-        }//end for
+        this.checkK(k);
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        //Query items with equal values are answered once
+        final int[] SLOTS = BatchResult.distinct(QUERIES, query ->
+                Double.doubleToLongBits(this.toDouble.applyAsDouble(query)));
+        final List<T> UNIQUE = BatchResult.representatives(QUERIES, SLOTS);
+        final int[] IDS = new int[UNIQUE.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        this.context.run(() -> IntStream.range(0, UNIQUE.size())
+                                        .parallel()
+                                        .forEach(q -> this.select(this.toDouble
+                                                .applyAsDouble(UNIQUE.get(q)),
+                                                k, IDS, DISTANCES, q * k)));
+
+        return new BatchResult<>(UNIQUE, this.items, k, IDS, DISTANCES)
+                .expand(QUERIES, SLOTS);
+    }
 
-        buckets.forEach((item, bucket) -> bucket.close());
-        this.minPQ.addAll(minBuffer);
-        this.maxPQ.addAll(maxBuffer);
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        return this.findScored(query, k).items();
+    }
 
-        return new TransitiveMap(buckets);
+    /**
+     * Solves the k-furthest items problem, with a single query item, keeping
+     * the distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        final int[] IDS = new int[k];
+        final double[] DISTANCES = new double[k];
+        this.select(this.toDouble.applyAsDouble(query), k, IDS, DISTANCES, 0);
+
+        List<T> result = new ArrayList<>(k);
+        for (int id : IDS) {
+            result.add(this.items.get(id));
+        }//end for
+
+        return new ScoredItems<>(result, DISTANCES);
     }
 
+    /**
+     * Iterates over the reference items, in descending order of their
+     * distances from a query item. The items are taken from the two ends of
+     * the sorted ids, which are polled from the heaps as far as needed.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over all the reference items, from
+     * the furthest to the nearest.
+     */
     @Override
-    public @NotNull Collection<T> find(@NotNull T query, final int k) {
-        if (k < 1 || k > this.minPQ.size()) {
-            throw new IllegalArgumentException("Argument k must be in range " +
-                    "[1, universe.size()].");
-        }//end if
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        final List<T> SORTED = new AbstractList<>() {
+            @Override
+            public T get(int position) {
+                return DoublePQ1D.this.items.get(DoublePQ1D.this.sortedId(
+                        position));
+            }
+
+            @Override
+            public int size() {
+                return DoublePQ1D.this.items.size();
+            }
+        };
+        return new EndsIterator<>(SORTED, position -> this.values[
+                this.sortedId(position)], this.toDouble.applyAsDouble(query));
+    }
+
+    /**
+     * Writes the k-furthest ids from a query value and their distances to k
+     * consecutive slots of the given arrays. The furthest items are taken from
+     * the two ends of the sorted ids, whichever is further each time, so they
+     * come out in descending order of their distances, followed by the items
+     * with NaN values.
+     */
+    private void select(final double queryValue, final int k, @NotNull int[]
+            ids, @NotNull double[] distances, final int offset) {
+        int min = 0;
+        int max = this.sorted.length - 1;
+        for (int i = offset; i < offset + k; ++i) {
+            if (min > max) {
+                ids[i] = this.nanIds[i - offset - this.sorted.length];
+                distances[i] = Double.NaN;
+                continue;
+            }//end if
 
-        Bucket bucket = new Bucket(query, k);
-        List<Wrapper> minBuffer = new ArrayList<>(k);
-        List<Wrapper> maxBuffer = new ArrayList<>(k);
-        for (int i = 1; i <= k; ++i) {
-            final Wrapper MIN = this.minPQ.remove();
-            final Wrapper MAX = this.maxPQ.remove();
-            minBuffer.add(MIN);
-            maxBuffer.add(MAX);
-            bucket.add(MIN.ITEM, MAX.ITEM);
+            final int MIN_ID = this.sortedId(min);
+            final int MAX_ID = this.sortedId(max);
+            final double D_MIN = Math.abs(queryValue - this.values[MIN_ID]);
+            final double D_MAX = Math.abs(queryValue - this.values[MAX_ID]);
+            if (D_MIN > D_MAX) {
+                ids[i] = MIN_ID;
+                distances[i] = D_MIN;
+                ++min;
+            } else {
+                ids[i] = MAX_ID;
+                distances[i] = D_MAX;
+                --max;
+            }//end if
         }//end for
+    }
 
-        this.minPQ.addAll(minBuffer);
-        this.maxPQ.addAll(maxBuffer);
+    /**
+     * Gets the id at a position of the ids in ascending order of their values,
+     * followed by the ids with NaN values. The heap of the nearer end is
+     * polled, until the position is known.
+     */
+    private int sortedId(final int position) {
+        final int SIZE = this.sorted.length;
+        if (position >= SIZE) {
+            return this.nanIds[position - SIZE];
+        }//end if
+
+        if (position >= this.low && position < SIZE - this.high) {
+            synchronized (this.lock) {
+                while (position >= this.low && position < SIZE - this.high) {
+                    if (position - this.low <= SIZE - this.high - 1 -
+                            position) {
+                        this.sorted[this.low] = this.poll(this.minHeap);
+                        ++this.low;
+                    } else {
+                        this.sorted[SIZE - this.high - 1] = this.poll(
+                                this.maxHeap);
+                        ++this.high;
+                    }//end if
+                }//end while
+            }//end synchronized
+        }//end if
+
+        return this.sorted[position];
+    }
+
+    /**
+     * Polls the next id of a heap, that the other heap has not polled.
+     */
+    private int poll(@NotNull IndexHeap heap) {
+        int id = heap.poll();
+        while (this.polled[id]) {
+            id = heap.poll();
+        }//end while
+        this.polled[id] = true;
+
+        return id;
+    }
 
-        return bucket.furthest;
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * DoublePQ1D} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
     }
 
     @Override
@@ -0,0 +1,103 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A {@link FurthestIterator} over reference items in ascending order of their
+ * values, on the distance |value - query value|. The furthest remaining item
+ * is always at one of the two ends of the remaining range, so the items are
+ * handed out by two pointers, in constant time each.
+ * @param <T> The type of the items.
+ */
+final class EndsIterator<T> implements FurthestIterator<T> {
+
+    /**
+     * The reference items, in ascending order of their values.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * An {@link IntToDoubleFunction} that accepts an index of the items and
+     * returns the value of its item.
+     */
+    private final @NotNull IntToDoubleFunction value;
+
+    /**
+     * The value of the query item.
+     */
+    private final double queryValue;
+
+    /**
+     * The index of the smallest remaining item.
+     */
+    private int min;
+
+    /**
+     * The index of the largest remaining item.
+     */
+    private int max;
+
+    /**
+     * The distance of the last item, or NaN before the 1st one.
+     */
+    private double distance = Double.NaN;
+
+    /**
+     * Indicates if {@link #next()} has been called.
+     */
+    private boolean started;
+
+    /**
+     * Creates an {@link EndsIterator}.
+     * @param items The reference items, in ascending order of their values.
+     * @param value An {@link IntToDoubleFunction} that accepts an index of the
+     * items and returns the value of its item.
+     * @param queryValue The value of the query item.
+     */
+    EndsIterator(@NotNull List<T> items, @NotNull IntToDoubleFunction value,
+            final double queryValue) {
+        this.items = items;
+        this.value = value;
+        this.queryValue = queryValue;
+        this.max = items.size() - 1;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.min <= this.max;
+    }
+
+    @Override
+    public T next() {
+        if (this.min > this.max) {
+            throw new NoSuchElementException("All the items are handed out.");
+        }//end if
+
+        final double D_MIN = Math.abs(this.queryValue -
+                this.value.applyAsDouble(this.min));
+        final double D_MAX = Math.abs(this.queryValue -
+                this.value.applyAsDouble(this.max));
+        this.started = true;
+        if (D_MIN > D_MAX) {
+            this.distance = D_MIN;
+            return this.items.get(this.min++);
+        }//end if
+
+        this.distance = D_MAX;
+        return this.items.get(this.max--);
+    }
+
+    @Override
+    public double distance() {
+        if (!this.started) {
+            throw new IllegalStateException("Call next() first.");
+        }//end if
+
+        return this.distance;
+    }
+
+}//end class EndsIterator
\ No newline at end of file
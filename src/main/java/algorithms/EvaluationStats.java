@@ -0,0 +1,86 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The query and exact distance evaluation counts of the algorithms that prune
+ * the evaluations of a metric, so that they can report how many evaluations
+ * they save, compared to a brute force scan. The counts are kept in {@link
+ * LongAdder}s, so that concurrent queries do not contend on them.
+ */
+abstract class EvaluationStats {
+
+    /**
+     * The number of reference items, which a brute force scan evaluates.
+     */
+    private final int universeSize;
+
+    /**
+     * The number of queries answered.
+     */
+    private final @NotNull LongAdder queryCount = new LongAdder();
+
+    /**
+     * The number of exact distance evaluations of the queries answered.
+     */
+    private final @NotNull LongAdder evaluationCount = new LongAdder();
+
+    /**
+     * Creates an {@link EvaluationStats}, with counts of 0.
+     * @param universeSize The number of reference items.
+     */
+    EvaluationStats(final int universeSize) {
+        this.universeSize = universeSize;
+    }
+
+    /**
+     * Counts a query answered.
+     * @param evaluations The number of exact distance evaluations of the
+     * query.
+     */
+    void record(final int evaluations) {
+        this.queryCount.increment();
+        this.evaluationCount.add(evaluations);
+    }
+
+    /**
+     * Gets the number of queries answered, since the creation or the last
+     * {@link #resetStatistics()}.
+     * @return The number of queries answered.
+     */
+    public long getQueryCount() {
+        return this.queryCount.sum();
+    }
+
+    /**
+     * Gets the number of exact distance evaluations of the queries answered,
+     * since the creation or the last {@link #resetStatistics()}.
+     * @return The number of exact distance evaluations.
+     */
+    public long getEvaluationCount() {
+        return this.evaluationCount.sum();
+    }
+
+    /**
+     * Gets the average number of exact distance evaluations that a query
+     * saved, compared to a brute force scan of universe.size() evaluations.
+     * @return The average number of evaluations saved per query, or 0 if no
+     * query is answered.
+     */
+    public double getSavedEvaluationsPerQuery() {
+        final long QUERIES = this.queryCount.sum();
+        return (QUERIES == 0) ? 0.0 : this.universeSize -
+                (double) this.evaluationCount.sum() / QUERIES;
+    }
+
+    /**
+     * Resets the query and evaluation counts to 0.
+     */
+    public void resetStatistics() {
+        this.queryCount.reset();
+        this.evaluationCount.reset();
+    }
+
+}//end class EvaluationStats
\ No newline at end of file
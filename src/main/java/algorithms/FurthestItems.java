@@ -1,10 +1,20 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
+import util.Deadline;
+import util.ExecutionContext;
+import util.Selection;
+import util.TopK;
 
 import java.util.*;
-import java.util.function.Function;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An interface that represents a k-furthest items algorithm. This interface is
@@ -30,14 +40,16 @@ public interface FurthestItems<T> {
     }
 
     /**
-     * Finds the k largest items of a given {@link Collection}.
+     * Finds the k largest items of a given {@link Collection}. A {@link
+     * Comparator} gives no score that a {@link TopK} could keep, so the items
+     * are kept in a fixed capacity min-heap of k slots instead.
      * @param collection A {@link Collection} with all the items, to find its k
      * largest.
      * @param comp A {@link Comparator} to compare the items.
      * @param k The number of largest items that will be retrieved.
      * @param <T> The type of the items.
-     * @return A {@link Collection} with the k largest items of the given
-     * {@link Collection}.
+     * @return A mutable {@link Collection} with the k largest items of the
+     * given {@link Collection}.
      * @throws IllegalArgumentException If {@code k > collection.size() || k <
      * 1}.
      */
@@ -48,23 +60,175 @@ public interface FurthestItems<T> {
                     "[1, collection.size()].");
         }//end if
 
-        PriorityQueue<T> minQueue = new PriorityQueue<>(collection.size(),
-                comp);
+        @SuppressWarnings("unchecked")
+        final T[] HEAP = (T[]) new Object[k];
         Iterator<T> itr = collection.iterator();
-
-        while (minQueue.size() < k) {
-            minQueue.add(itr.next());
-        }//end while
+        for (int i = 0; i < k; ++i) {
+            HEAP[i] = itr.next();
+        }//end for
+        for (int i = k / 2 - 1; i >= 0; --i) {
+            FurthestItems.siftDown(HEAP, i, HEAP[i], comp);
+        }//end for
 
         while (itr.hasNext()) {
             T v = itr.next();
-            if (comp.compare(v, minQueue.element()) > 0) {
-                minQueue.remove();
-                minQueue.add(v);
+            if (comp.compare(v, HEAP[0]) > 0) {
+                FurthestItems.siftDown(HEAP, 0, v, comp);
             }//end if
         }//end while
 
-        return minQueue;
+        return new ArrayList<>(Arrays.asList(HEAP));
+    }
+
+    /**
+     * Moves an item down from a slot of a min-heap, until its children are
+     * not smaller than it.
+     */
+    private static <T> void siftDown(@NotNull T[] heap, int slot, T item,
+            @NotNull Comparator<T> comp) {
+        while (2 * slot + 1 < heap.length) {
+            int child = 2 * slot + 1;
+            if (child + 1 < heap.length && comp.compare(heap[child + 1],
+                    heap[child]) < 0) {
+                ++child;
+            }//end if
+            if (comp.compare(heap[child], item) >= 0) {
+                break;
+            }//end if
+            heap[slot] = heap[child];
+            slot = child;
+        }//end while
+
+        heap[slot] = item;
+    }
+
+    /**
+     * Finds the k items of a given {@link Collection} with the smallest
+     * scores.
+     * @param collection A {@link Collection} with all the items, to find its k
+     * smallest.
+     * @param score A {@link ToDoubleFunction} that accepts an item and returns
+     * its score. It is called exactly once per item.
+     * @param k The number of smallest items that will be retrieved.
+     * @param <T> The type of the items.
+     * @return A {@link Collection} with the k items with the smallest scores.
+     * @throws IllegalArgumentException If {@code k > collection.size() || k <
+     * 1}.
+     */
+    static <T> @NotNull Collection<T> minK(@NotNull Collection<T> collection,
+            @NotNull ToDoubleFunction<? super T> score, final int k) {
+        return minK(collection, score, k, Selection.AUTO);
+    }
+
+    /**
+     * Finds the k items of a given {@link Collection} with the smallest
+     * scores, with the given {@link Selection} strategy.
+     * @param collection A {@link Collection} with all the items, to find its k
+     * smallest.
+     * @param score A {@link ToDoubleFunction} that accepts an item and returns
+     * its score. It is called exactly once per item.
+     * @param k The number of smallest items that will be retrieved.
+     * @param selection The {@link Selection} strategy to select the items
+     * with.
+     * @param <T> The type of the items.
+     * @return A {@link Collection} with the k items with the smallest scores.
+     * @throws IllegalArgumentException If {@code k > collection.size() || k <
+     * 1}.
+     */
+    static <T> @NotNull Collection<T> minK(@NotNull Collection<T> collection,
+            @NotNull ToDoubleFunction<? super T> score, final int k, @NotNull
+            Selection selection) {
+        return maxK(collection, (T item) -> -score.applyAsDouble(item), k,
+                selection);
+    }
+
+    /**
+     * Finds the k items of a given {@link Collection} with the largest scores.
+     * The {@link Selection} strategy is chosen by the ratio of k to the size of
+     * the {@link Collection}.
+     * @param collection A {@link Collection} with all the items, to find its k
+     * largest.
+     * @param score A {@link ToDoubleFunction} that accepts an item and returns
+     * its score. It is called exactly once per item.
+     * @param k The number of largest items that will be retrieved.
+     * @param <T> The type of the items.
+     * @return A {@link Collection} with the k items with the largest scores.
+     * @throws IllegalArgumentException If {@code k > collection.size() || k <
+     * 1}.
+     */
+    static <T> @NotNull Collection<T> maxK(@NotNull Collection<T> collection,
+            @NotNull ToDoubleFunction<? super T> score, final int k) {
+        return maxK(collection, score, k, Selection.AUTO);
+    }
+
+    /**
+     * Finds the k items of a given {@link Collection} with the largest scores,
+     * with the given {@link Selection} strategy. A heap selection runs on a
+     * {@link TopK} of the current thread, so nothing is allocated per item. A
+     * quickselect scores all the items into an array first.
+     * @param collection A {@link Collection} with all the items, to find its k
+     * largest.
+     * @param score A {@link ToDoubleFunction} that accepts an item and returns
+     * its score. It is called exactly once per item.
+     * @param k The number of largest items that will be retrieved.
+     * @param selection The {@link Selection} strategy to select the items
+     * with.
+     * @param <T> The type of the items.
+     * @return A {@link Collection} with the k items with the largest scores.
+     * @throws IllegalArgumentException If {@code k > collection.size() || k <
+     * 1}.
+     */
+    static <T> @NotNull Collection<T> maxK(@NotNull Collection<T> collection,
+            @NotNull ToDoubleFunction<? super T> score, final int k, @NotNull
+            Selection selection) {
+        if (k < 1 || k > collection.size()) {
+            throw new IllegalArgumentException("Argument k must be in " +
+                    "[1, collection.size()].");
+        }//end if
+
+        final int[] INDICES;
+        int index = 0;
+        if (selection.resolve(collection.size(), k) == Selection.HEAP) {
+            //The score function may run selections of its own, which would
+            //reset the TopK of the current thread
+            TopK topK = new TopK(k);
+            //NaN scores rank below every other one, so that exactly k items
+            //are always retrieved
+            for (T item : collection) {
+                topK.offer(index++, score.applyAsDouble(item));
+            }//end for
+            INDICES = topK.ids();
+        } else {
+            final double[] SCORES = new double[collection.size()];
+            for (T item : collection) {
+                SCORES[index++] = score.applyAsDouble(item);
+            }//end for
+            INDICES = Selection.QUICKSELECT.select(SCORES, SCORES.length, k)
+                                           .ids();
+        }//end if
+        List<T> result = new ArrayList<>(k);
+        if (collection instanceof List && collection instanceof RandomAccess) {
+            List<T> list = (List<T>) collection;
+            for (int i : INDICES) {
+                result.add(list.get(i));
+            }//end for
+            return result;
+        }//end if
+
+        //A 2nd pass that picks the items at the selected indices
+        Arrays.sort(INDICES);
+        index = 0;
+        int next = 0;
+        for (Iterator<T> itr = collection.iterator(); next < INDICES.length;
+                ++index) {
+            T item = itr.next();
+            if (index == INDICES[next]) {
+                result.add(item);
+                ++next;
+            }//end if
+        }//end for
+
+        return result;
     }
 
     /**
@@ -84,9 +248,224 @@ public interface FurthestItems<T> {
                     "can't be empty.");
         }//end if
 
-        return query.parallelStream()
-                    .collect(Collectors.toConcurrentMap(Function.identity(),
-                            q -> this.find(q, k)));
+        //Only the query items are hashed, lazily, by the Map view
+        return this.findBatch(new ArrayList<>(query), k).asMap();
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items, into a
+     * {@link BatchResult}. This implementation calls {@link #find(Object,
+     * int)} for every query item, in parallel, so its ids index a {@link List}
+     * of the returned items and its distances are NaN. Implementors that
+     * address their reference items by id should override it.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    default @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final List<Collection<T>> RESULTS = this.getExecutionContext().invoke(
+                () -> QUERIES.parallelStream()
+                            .map(q -> this.find(q, k))
+                            .collect(Collectors.toList()));
+
+        final int[] IDS = new int[QUERIES.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        Arrays.fill(IDS, -1);
+        Arrays.fill(DISTANCES, Double.NaN);
+        List<T> items = new ArrayList<>();
+        for (int q = 0; q < RESULTS.size(); ++q) {
+            Iterator<T> itr = RESULTS.get(q).iterator();
+            for (int i = q * k; i < (q + 1) * k && itr.hasNext(); ++i) {
+                IDS[i] = items.size();
+                items.add(itr.next());
+            }//end for
+        }//end for
+
+        return new BatchResult<>(QUERIES, items, k, IDS, DISTANCES);
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, within a
+     * time budget. When the budget runs out, the best furthest items found so
+     * far are returned, as an incomplete result.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @param timeout The time budget.
+     * @param unit The {@link TimeUnit} of timeout.
+     * @return A {@link BoundedResult} with the best furthest items found and
+     * whether the algorithm finished.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     * @throws IllegalArgumentException If {@code timeout < 0}.
+     */
+    default @NotNull BoundedResult<T> findWithin(@NotNull T query, final int
+            k, final long timeout, @NotNull TimeUnit unit) {
+        return this.findWithin(query, k, Deadline.after(timeout, unit));
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, before a
+     * {@link Deadline}. Implementors check the {@link Deadline}
+     * cooperatively and return the best items found so far, when it passes.
+     * This implementation does not check it: it always finishes and returns a
+     * complete result, with the distances of {@link #findScored(Object, int)}
+     * if it is supported, otherwise with NaN distances.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with the best furthest items found and
+     * whether the algorithm finished.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    default @NotNull BoundedResult<T> findWithin(@NotNull T query, final int
+            k, @NotNull Deadline deadline) {
+        ScoredItems<T> scored;
+        try {
+            scored = this.findScored(query, k);
+        } catch (UnsupportedOperationException e) {
+            final List<T> ITEMS = new ArrayList<>(this.find(query, k));
+            final double[] DISTANCES = new double[ITEMS.size()];
+            Arrays.fill(DISTANCES, Double.NaN);
+            scored = new ScoredItems<>(ITEMS, DISTANCES);
+        }//end try
+
+        return new BoundedResult<>(scored, true);
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item,
+     * asynchronously on the {@link ExecutionContext} of this {@link
+     * FurthestItems}. If the returned {@link CompletableFuture} is cancelled
+     * before the query starts, the query never runs.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link CompletableFuture} that is completed with the result of
+     * {@link #find(Object, int)}, or exceptionally with its exception.
+     */
+    default @NotNull CompletableFuture<Collection<T>> findAsync(@NotNull T
+            query, final int k) {
+        return CompletableFuture.supplyAsync(() -> this.find(query, k),
+                this.getExecutionContext().pool());
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items,
+     * asynchronously on the {@link ExecutionContext} of this {@link
+     * FurthestItems}. The query items are split in chunks, that are answered
+     * by {@link #findBatch(List, int)} in parallel. If the returned {@link
+     * CompletableFuture} is cancelled, the chunks that have not started yet
+     * are skipped, so an abandoned batch stops using the CPU after its
+     * running chunks.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link CompletableFuture} that is completed with a {@link
+     * BatchResult} with the k-furthest items of every query item, or
+     * exceptionally with the exception of a chunk.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     */
+    default @NotNull CompletableFuture<BatchResult<T>> findBatchAsync(@NotNull
+            List<T> queries, final int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final ExecutionContext CONTEXT = this.getExecutionContext();
+        //Several chunks per thread, of at most 256 query items, so that a
+        //cancellation skips most of them
+        final int CHUNK_LENGTH = Math.max(1, Math.min(256, QUERIES.size() /
+                (4 * CONTEXT.parallelism())));
+        final int CHUNKS = (QUERIES.size() - 1) / CHUNK_LENGTH + 1;
+        final CompletableFuture<BatchResult<T>> RESULT =
+                new CompletableFuture<>();
+        CONTEXT.pool().execute(() -> {
+            try {
+                final List<BatchResult<T>> PARTS = IntStream.range(0, CHUNKS)
+                        .parallel()
+                        .mapToObj(c -> {
+                            if (RESULT.isDone()) {
+                                throw new CancellationException();
+                            }//end if
+                            final int FROM = c * CHUNK_LENGTH;
+                            return this.findBatch(QUERIES.subList(FROM,
+                                    Math.min(QUERIES.size(), FROM +
+                                    CHUNK_LENGTH)), k);
+                        })
+                        .collect(Collectors.toList());
+                RESULT.complete(BatchResult.concat(QUERIES, k, PARTS));
+            } catch (RuntimeException | Error e) {
+                //It has no effect, if the result is already cancelled
+                RESULT.completeExceptionally(e);
+            }//end try
+        });
+
+        return RESULT;
+    }
+
+    /**
+     * Iterates over the items of the universe, in descending order of their
+     * distances from a query item. The search advances only as far as the
+     * items are pulled, so a consumer can stop at any k, or at any distance,
+     * without computing the rest of the order.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over the items of the universe, from
+     * the furthest to the nearest.
+     * @throws UnsupportedOperationException If the implementor does not
+     * support it.
+     */
+    default @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        throw new UnsupportedOperationException(this + " does not support " +
+                "iterate().");
+    }
+
+    /**
+     * Streams the items of the universe, in descending order of their
+     * distances from a query item. It is a lazy, sequential {@link Stream}
+     * over {@link #iterate(Object)}, e.g. for {@link Stream#limit(long)} or
+     * {@link Stream#takeWhile(java.util.function.Predicate)}.
+     * @param query The query item.
+     * @return A {@link Stream} over the items of the universe, from the
+     * furthest to the nearest.
+     * @throws UnsupportedOperationException If the implementor does not
+     * support {@link #iterate(Object)}.
+     */
+    default @NotNull Stream<T> stream(@NotNull T query) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                this.iterate(query), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Gets the version of the answers of this {@link FurthestItems}. It
+     * changes whenever a setter changes the answers, e.g. a new universe or
+     * distance function, so that the layers that keep answers, like {@link
+     * QueryCache}, know when to drop them. Implementors keep it in a volatile
+     * field, that every such setter increments after its change, so that a
+     * thread that reads the new version also sees the new answers.
+     * @return The version of the answers, 0 by default, for algorithms whose
+     * answers never change.
+     */
+    default long version() {
+        return 0;
+    }
+
+    /**
+     * Gets the {@link ExecutionContext} that the parallel work of this {@link
+     * FurthestItems} runs on.
+     * @return The {@link ExecutionContext} of this {@link FurthestItems}, the
+     * common one by default.
+     */
+    default @NotNull ExecutionContext getExecutionContext() {
+        return ExecutionContext.common();
     }
 
     /**
@@ -99,4 +478,21 @@ public interface FurthestItems<T> {
      */
     @NotNull Collection<T> find(@NotNull T query, final int k);
 
+    /**
+     * Solves the k-furthest items problem, with a single query item, keeping
+     * the distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with a subset of the universe, such that
+     * every item in it is inside the k-furthest, from the query item, in
+     * descending order of their distances from it.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     * @throws UnsupportedOperationException If the implementor does not
+     * support it.
+     */
+    default @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        throw new UnsupportedOperationException(this + " does not support " +
+                "findScored().");
+    }
+
 }//end interface FurthestItems
\ No newline at end of file
@@ -0,0 +1,23 @@
+package algorithms;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over the items of the universe, in descending order of
+ * their distances from a query item. It keeps the state of its search between
+ * the calls of {@link #next()}, so pulling one more item does not repeat the
+ * work that was done for the previous ones. Approximate algorithms may hand
+ * out only some of the items, or not in exact order.
+ * @param <T> The type of the items.
+ */
+public interface FurthestIterator<T> extends Iterator<T> {
+
+    /**
+     * Gets the distance of the item that {@link #next()} returned last, from
+     * the query item.
+     * @return The distance of the last item.
+     * @throws IllegalStateException If {@link #next()} has not been called.
+     */
+    double distance();
+
+}//end interface FurthestIterator
\ No newline at end of file
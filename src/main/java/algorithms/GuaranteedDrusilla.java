@@ -1,11 +1,15 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
+import util.Deadline;
+import util.ExecutionContext;
+import util.TopK;
 import util.Vector;
+import util.VectorStore;
 
 import java.util.*;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * An approximate algorithm that solves the k-furthest items problem. It can
@@ -45,10 +49,17 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
      * A {@link FurthestItems} instance to compute the furthest items on the
      * processed set.
      */
-    private @NotNull FurthestItems<T> algorithm;
+    private @NotNull StoreBruteForce<T> algorithm;
 
     /**
-     * Creates a {@link GuaranteedDrusilla}, ready to accept queries.
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * GuaranteedDrusilla} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * Creates a {@link GuaranteedDrusilla}, ready to accept queries. The
+     * coordinates are stored in double precision.
      * @param universe A {@link Collection} with the reference items.
      * @param toVector A {@link Function} that accepts an item and returns its
      * {@link Vector} representation.
@@ -60,6 +71,49 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
      */
     public GuaranteedDrusilla(@NotNull Collection<T> universe, @NotNull
             Function<T, Vector> toVector, final double e, final int m) {
+        this(universe, toVector, e, m, VectorStore.Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link GuaranteedDrusilla}, ready to accept queries.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param e The approximation level.
+     * @param m The set size.
+     * @param precision The precision that the coordinates of the processed
+     * set are stored in.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code e <= 0.0 || e >= 1.0}.
+     * @throws IllegalArgumentException If {@code m < 1}.
+     */
+    public GuaranteedDrusilla(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, final double e, final int m, @NotNull
+            VectorStore.Precision precision) {
+        this(universe, toVector, e, m, precision, ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link GuaranteedDrusilla}, ready to accept queries. The
+     * processed set is built on the given {@link ExecutionContext}, which the
+     * queries then run on too, unless {@link
+     * #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param e The approximation level.
+     * @param m The set size.
+     * @param precision The precision that the coordinates of the processed
+     * set are stored in.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code e <= 0.0 || e >= 1.0}.
+     * @throws IllegalArgumentException If {@code m < 1}.
+     */
+    public GuaranteedDrusilla(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, final double e, final int m, @NotNull
+            VectorStore.Precision precision, @NotNull ExecutionContext
+            context) {
         if (universe.isEmpty()) {
             throw new IllegalArgumentException("Argument Collection universe " +
                     "can't be empty.");
@@ -73,44 +127,45 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
             throw new IllegalArgumentException("Argument m must be >= 1.");
         }//end if
 
-        Vector center = Vector.center(universe.stream()
-                                              .map(toVector)
-                                              .iterator());
-
-        class Item {
-            @NotNull T data;
-            @NotNull Vector v;
-            final double NORM;
-            double s;
-
-            Item(@NotNull T data) {
-                this.data = data;
-                this.v = Vector.subtract(toVector.apply(data), center);
-                this.NORM = this.v.norm2();
-            }
-        }//end local class Item
-
-        Set<Item> items = universe.parallelStream()
-                                  .map(Item::new)
-                                  .filter(i -> i.NORM != 0.0)
-                                  .sorted(Comparator.comparingDouble((Item i) ->
-                                          i.NORM).reversed())
-                                  .collect(Collectors.toCollection(
-                                          LinkedHashSet::new));
+        //The items are centered at the origin inside a VectorStore, so that
+        //every iteration below works on primitive arrays and allocates nothing
+        //per item
+        List<T> data = new ArrayList<>(universe);
+        VectorStore store = VectorStore.of(data, toVector, precision);
+        Vector center = store.center();
+        store.subtract(center);
 
-        Collection<T> r = new ArrayList<>();
-        final double THRESHOLD = items.iterator().next().NORM * e / (6 + 3 * e);
+        final double[] SQR_NORMS = new double[store.size()];
+        context.run(() -> IntStream.range(0, store.size())
+                                   .parallel()
+                                   .forEach(id -> SQR_NORMS[id] =
+                                           store.sqrNorm(id)));
 
-        Item min;
-        Iterator<Item> itr = items.iterator();
-        do {
-            min = itr.next();
-        } while (itr.hasNext());
+        //The ids of the items that are not collected yet, in descending order
+        //of their norms. Only its first remaining ids are valid. The sort of a
+        //parallel ordered stream is stable, so the ties keep the order of ids
+        final Comparator<Integer> BY_NORM = Comparator.comparingDouble(
+                (Integer id) -> SQR_NORMS[id]).reversed();
+        int[] items = context.invoke(() -> IntStream.range(0, store.size())
+                                                    .parallel()
+                                                    .filter(id -> SQR_NORMS[id]
+                                                            != 0.0)
+                                                    .boxed()
+                                                    .sorted(BY_NORM)
+                                                    .mapToInt(Integer::intValue)
+                                                    .toArray());
+        int remaining = items.length;
+
+        Collection<T> r = new ArrayList<>();
+        final double THRESHOLD = Math.sqrt(SQR_NORMS[items[0]]) * e /
+                (6 + 3 * e);
 
         //Checks if all the items will eventually be collected, for performance
         //reasons
-        if (min.NORM > THRESHOLD) {
-            items.forEach(i -> r.add(i.data));
+        if (Math.sqrt(SQR_NORMS[items[remaining - 1]]) > THRESHOLD) {
+            for (int id : items) {
+                r.add(data.get(id));
+            }//end for
 
             this.universe = universe;
             this.toVector = toVector;
@@ -118,40 +173,62 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
             this.m = m;
 
             this.center = center;
-            this.algorithm = new BruteForce<>(r, (i1, i2) -> Vector.sqrDistance(
-                    toVector.apply(i1), toVector.apply(i2)));
+            this.context = context;
+            this.algorithm = new StoreBruteForce<>(r, toVector, precision);
+            this.algorithm.setExecutionContext(context);
             return;
         }//end if
 
-        //If true items set is virtually empty. If false items set is or is not
-        //empty. Used for performance reasons
+        //If true items list is virtually empty. If false items list is or is
+        //not empty. Used for performance reasons
         boolean isItemsEmpty = false;
-        Item max;
-        while ((max = items.iterator().next()).NORM > THRESHOLD) {
-            if (items.size() <= m) {
-                items.forEach(i -> r.add(i.data));
+        final double[] S = new double[store.size()];
+        final boolean[] COLLECTED = new boolean[store.size()];
+        int max;
+        while (Math.sqrt(SQR_NORMS[max = items[0]]) > THRESHOLD) {
+            if (remaining <= m) {
+                for (int i = 0; i < remaining; ++i) {
+                    r.add(data.get(items[i]));
+                }//end for
                 isItemsEmpty = true;
                 break;
             }//end if
 
-            Vector u = new Vector(max.v).divide(max.NORM);
-            items.parallelStream()
-                 .forEach(i -> {
-                     final double o = Vector.dotProduct(i.v, u);
-                     final double d = Vector.subtract(i.v,
-                             Vector.multiply(u, o)).norm2();
-                     i.s = Math.abs(o) - d;
-                 });
-
-            FurthestItems.maxK(items, Comparator.comparingDouble(i -> i.s), m)
-                         .forEach(i -> {r.add(i.data); items.remove(i);});
+            final int[] ITEMS = items;
+            final int REMAINING = remaining;
+            Vector u = store.get(max).divide(Math.sqrt(SQR_NORMS[max]));
+            context.run(() -> IntStream.range(0, REMAINING)
+                                       .parallel()
+                                       .forEach(i -> {
+                                           final int ID = ITEMS[i];
+                                           final double O = store.dotProduct(
+                                                   ID, u);
+                                           S[ID] = Math.abs(O) -
+                                                   Vector.rejectionNorm(
+                                                   SQR_NORMS[ID], O);
+                                       }));
+
+            TopK topK = TopK.local(m);
+            for (int i = 0; i < remaining; ++i) {
+                topK.offer(items[i], S[items[i]]);
+            }//end for
+            for (int i = 0; i < topK.size(); ++i) {
+                r.add(data.get(topK.id(i)));
+                COLLECTED[topK.id(i)] = true;
+            }//end for
+
+            //Compacts the ids that are not collected, keeping their order
+            int kept = 0;
+            for (int i = 0; i < remaining; ++i) {
+                if (!COLLECTED[items[i]]) {
+                    items[kept++] = items[i];
+                }//end if
+            }//end for
+            remaining = kept;
         }//end while
 
         if (!isItemsEmpty) {
-            items.stream()
-                 .map(i -> i.data)
-                 .findAny()
-                 .ifPresent(r::add);
+            r.add(data.get(items[0]));
         }//end if
 
         this.universe = universe;
@@ -160,8 +237,9 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
         this.m = m;
 
         this.center = center;
-        this.algorithm = new BruteForce<>(r, (i1, i2) -> Vector.sqrDistance(
-                toVector.apply(i1), toVector.apply(i2)));
+        this.context = context;
+        this.algorithm = new StoreBruteForce<>(r, toVector, precision);
+        this.algorithm.setExecutionContext(context);
     }
 
     /**
@@ -181,6 +259,86 @@ public class GuaranteedDrusilla<T> implements FurthestItems<T> {
         return this.algorithm.find(query, k);
     }
 
+    /**
+     * Solves approximately the k-furthest items problem, with a single query
+     * item, keeping the distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with approximately the k-furthest items,
+     * from the query item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        return this.algorithm.findScored(query, k);
+    }
+
+    /**
+     * Solves approximately the k-furthest items problem, with a single query
+     * item, before a {@link Deadline}. The scan of the representative items is
+     * checked against the {@link Deadline}, and when it passes, the best of
+     * the scanned representatives are returned.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with approximately the k-furthest items,
+     * from the query item, in descending order of their Euclidean distances,
+     * that is complete if all the representative items were scanned.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BoundedResult<T> findWithin(@NotNull T query, final int k,
+            @NotNull Deadline deadline) {
+        return this.algorithm.findWithin(query, k, deadline);
+    }
+
+    /**
+     * Iterates over the representative items, in descending order of their
+     * Euclidean distances from a query item. Only the representatives are
+     * handed out, so the iteration is approximate beyond them.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over the representative items, from
+     * the furthest to the nearest.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        return this.algorithm.iterate(query);
+    }
+
+    /**
+     * Solves approximately the k-furthest items problem, for a batch of query
+     * items. The ids of the {@link BatchResult} index the selected subset of
+     * the universe, that the queries run on.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with approximately the k-furthest items of
+     * every query item, in descending order of their Euclidean distances from
+     * it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        return this.algorithm.findBatch(queries, k);
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the queries of this {@link
+     * GuaranteedDrusilla} run on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+        this.algorithm.setExecutionContext(context);
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
     @Override
     public String toString() {
         return String.format("Guaranteed Drusilla - m: %d - e: %f", this.m,
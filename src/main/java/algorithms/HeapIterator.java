@@ -0,0 +1,84 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.IndexHeap;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link FurthestIterator} over the distances of all the reference items,
+ * that are computed once. The items are handed out by an {@link IndexHeap}.
+ * @param <T> The type of the items.
+ */
+final class HeapIterator<T> implements FurthestIterator<T> {
+
+    /**
+     * The reference items, addressed by their ids.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * An {@link IndexHeap} with the ids that are not handed out yet.
+     */
+    private final @NotNull IndexHeap heap;
+
+    /**
+     * Indicates if the scores of the ids are squared Euclidean distances.
+     */
+    private final boolean sqrDistances;
+
+    /**
+     * The distance of the last item, or NaN before the 1st one.
+     */
+    private double distance = Double.NaN;
+
+    /**
+     * Indicates if {@link #next()} has been called.
+     */
+    private boolean started;
+
+    /**
+     * Creates a {@link HeapIterator}.
+     * @param items The reference items, addressed by their ids.
+     * @param distances The distances of the reference items, by id. The array
+     * is not copied.
+     * @param sqrDistances True if the distances are squared Euclidean
+     * distances, that are handed out as their square roots.
+     */
+    HeapIterator(@NotNull List<T> items, @NotNull double[] distances, final
+            boolean sqrDistances) {
+        this.items = items;
+        this.heap = new IndexHeap(distances);
+        this.sqrDistances = sqrDistances;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !this.heap.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (this.heap.isEmpty()) {
+            throw new NoSuchElementException("All the items are handed out.");
+        }//end if
+
+        final int ID = this.heap.poll();
+        final double SCORE = this.heap.score(ID);
+        this.distance = this.sqrDistances ? Math.sqrt(Math.max(0.0, SCORE)) :
+                SCORE;
+        this.started = true;
+        return this.items.get(ID);
+    }
+
+    @Override
+    public double distance() {
+        if (!this.started) {
+            throw new IllegalStateException("Call next() first.");
+        }//end if
+
+        return this.distance;
+    }
+
+}//end class HeapIterator
\ No newline at end of file
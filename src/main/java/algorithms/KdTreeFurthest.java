@@ -0,0 +1,405 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.IndexHeap;
+import util.TopK;
+import util.Vector;
+import util.VectorStore;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem with a
+ * kd-tree, on the Euclidean distance. Every node of the tree covers a
+ * contiguous range of the reference items, and keeps the bounding box of
+ * their {@link Vector}s. No item of a node is further from a query than the
+ * corner of its box that is furthest from the query, so the nodes are visited
+ * best-first, in descending order of that distance, and the search stops as
+ * soon as it falls below the k-th furthest distance found so far. The
+ * coordinates of the leaves are kept in a single primitive array, in the order
+ * of the leaves. It suits data of a few dimensions, between the 1-dimensional
+ * algorithms and the approximate ones.
+ * @param <T> The type of the items.
+ */
+public class KdTreeFurthest<T> implements FurthestItems<T> {
+
+    /**
+     * The maximum number of items of a leaf, by default.
+     */
+    private static final int DEFAULT_LEAF_SIZE = 64;
+
+    /**
+     * A {@link List} with the reference items, in the order of the leaves of
+     * the tree. The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * The {@link MedianSplit} with the nodes of the tree, where the position
+     * of every item in the split order is its id.
+     */
+    private @NotNull MedianSplit tree;
+
+    /**
+     * The number of dimensions of the {@link Vector}s of the reference items.
+     */
+    private int dimensions;
+
+    /**
+     * The coordinates of the reference items, in row-major order, i.e. the
+     * i-coordinate of the item with id x is at x * dimensions + i.
+     */
+    private @NotNull double[] points;
+
+    /**
+     * The lowest coordinates of the box of every node, in row-major order,
+     * i.e. the lowest i-coordinate of the node n is at n * dimensions + i.
+     */
+    private @NotNull double[] lows;
+
+    /**
+     * The highest coordinates of the box of every node, in row-major order.
+     */
+    private @NotNull double[] highs;
+
+    /**
+     * The maximum number of items of a leaf.
+     */
+    private final int leafSize;
+
+    /**
+     * A {@link Function} that accepts an item and returns its {@link Vector}
+     * representation.
+     */
+    private @NotNull Function<T, Vector> toVector;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * KdTreeFurthest} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a {@link KdTreeFurthest}, ready to accept queries. A leaf holds
+     * at most 64 items.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public KdTreeFurthest(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector) {
+        this(universe, toVector, DEFAULT_LEAF_SIZE, ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link KdTreeFurthest}, ready to accept queries. The tree is
+     * built on the given {@link ExecutionContext}, which the queries then run
+     * on too, unless {@link #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param leafSize The maximum number of items of a leaf.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code leafSize < 1}.
+     */
+    public KdTreeFurthest(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, final int leafSize, @NotNull
+            ExecutionContext context) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Argument leafSize must be >= " +
+                    "1.");
+        }//end if
+
+        this.toVector = toVector;
+        this.leafSize = leafSize;
+        this.context = context;
+        this.setItems(universe);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        TopK topK = this.select(this.toVector.apply(query), k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        return ScoredItems.of(this.select(this.toVector.apply(query), k),
+                this.items, true);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel, and the ones with equal
+     * coordinates are answered once.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        return BatchResult.euclidean(queries, this.items, k, this.toVector,
+                query -> this.select(query, k), this.context);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query {@link Vector}, with their
+     * squared distances. The nodes wait in an {@link IndexHeap} by their
+     * squared bounds, the leaves are scanned as they are polled, and the inner
+     * nodes add their children, until the bound of the next node can't beat
+     * the k-th furthest distance.
+     * @throws IllegalArgumentException If the query {@link Vector} doesn't
+     * have the dimensions of the reference items.
+     */
+    private @NotNull TopK select(@NotNull Vector query, final int k) {
+        if (query.size() != this.dimensions) {
+            throw new IllegalArgumentException("The Vector of the query item " +
+                    "must have the size of the ones of the reference items.");
+        }//end if
+
+        final double[] QUERY = new double[this.dimensions];
+        for (int i = 0; i < QUERY.length; ++i) {
+            QUERY[i] = query.get(i);
+        }//end for
+
+        final double[] BOUNDS = new double[this.tree.slots()];
+        IndexHeap heap = IndexHeap.empty(BOUNDS);
+        TopK topK = TopK.local(k);
+        BOUNDS[0] = this.sqrBound(0, QUERY);
+        heap.add(0);
+        while (!heap.isEmpty()) {
+            final int NODE = heap.poll();
+            if (BOUNDS[NODE] < topK.threshold()) {
+                break;
+            }//end if
+
+            if (this.tree.isLeaf(NODE)) {
+                for (int id = this.tree.from(NODE); id < this.tree.to(NODE);
+                        ++id) {
+                    topK.offer(id, this.sqrDistance(id, QUERY));
+                }//end for
+                continue;
+            }//end if
+
+            for (int child = 2 * NODE + 1; child <= 2 * NODE + 2; ++child) {
+                BOUNDS[child] = this.sqrBound(child, QUERY);
+                if (BOUNDS[child] >= topK.threshold()) {
+                    heap.add(child);
+                }//end if
+            }//end for
+        }//end while
+
+        return topK;
+    }
+
+    /**
+     * Computes the squared distance of a query from the corner of the box of
+     * a node that is furthest from it, raised by the slack.
+     */
+    private double sqrBound(final int node, @NotNull double[] query) {
+        final int OFFSET = node * this.dimensions;
+        double sum = 0.0;
+        for (int i = 0; i < query.length; ++i) {
+            final double EXTENT = Math.max(Math.abs(query[i] - this.lows[OFFSET
+                    + i]), Math.abs(query[i] - this.highs[OFFSET + i]));
+            sum += EXTENT * EXTENT;
+        }//end for
+
+        return Bounds.raise(sum);
+    }
+
+    private double sqrDistance(final int id, @NotNull double[] query) {
+        final int OFFSET = id * this.dimensions;
+        double sum = 0.0;
+        for (int i = 0; i < query.length; ++i) {
+            final double DIFFERENCE = query[i] - this.points[OFFSET + i];
+            sum += DIFFERENCE * DIFFERENCE;
+        }//end for
+
+        return sum;
+    }
+
+    /**
+     * Sets the reference items of this {@link KdTreeFurthest}.
+     * @param universe A {@link Collection} with the new reference items.
+     * @throws IllegalArgumentException If the given {@link Collection} is
+     * empty.
+     */
+    public void setUniverse(@NotNull Collection<T> universe) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.setItems(universe);
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@link Vector} from an item.
+     * @param toVector A {@link Function} that extracts a {@link Vector} from an
+     * item.
+     */
+    public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
+        this.toVector = toVector;
+        this.setItems(this.items);
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * KdTreeFurthest} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    /**
+     * Gets the maximum number of items of a leaf.
+     * @return The maximum number of items of a leaf.
+     */
+    public int getLeafSize() {
+        return this.leafSize;
+    }
+
+    /**
+     * Builds the tree on the reference items. The items are split by a {@link
+     * MedianSplit} and their coordinates are stored in its order, and then the
+     * box of every node is computed, in parallel.
+     */
+    private void setItems(@NotNull Collection<T> universe) {
+        final List<T> UNSORTED = new ArrayList<>(universe);
+        final VectorStore STORE = VectorStore.of(UNSORTED, this.toVector);
+        final MedianSplit TREE = new MedianSplit(STORE, this.leafSize,
+                this.context);
+        final int[] ORDER = TREE.order();
+        final int DIMENSIONS = STORE.dimensions();
+
+        final List<T> ITEMS = new ArrayList<>(ORDER.length);
+        final double[] POINTS = new double[Math.multiplyExact(ORDER.length,
+                DIMENSIONS)];
+        for (int id = 0; id < ORDER.length; ++id) {
+            ITEMS.add(UNSORTED.get(ORDER[id]));
+            for (int i = 0; i < DIMENSIONS; ++i) {
+                POINTS[id * DIMENSIONS + i] = STORE.get(ORDER[id], i);
+            }//end for
+        }//end for
+
+        final double[] LOWS = new double[TREE.slots() * DIMENSIONS];
+        final double[] HIGHS = new double[LOWS.length];
+        this.context.run(() -> IntStream.range(0, TREE.slots())
+                                        .parallel()
+                                        .filter(TREE::exists)
+                                        .forEach(node -> KdTreeFurthest.box(
+                                                POINTS, DIMENSIONS, TREE.from(
+                                                node), TREE.to(node), node *
+                                                DIMENSIONS, LOWS, HIGHS)));
+
+        this.items = ITEMS;
+        this.tree = TREE;
+        this.dimensions = DIMENSIONS;
+        this.points = POINTS;
+        this.lows = LOWS;
+        this.highs = HIGHS;
+        ++this.version;
+    }
+
+    /**
+     * Computes the bounding box of the points with ids in [from, to), and
+     * stores its lowest and highest coordinates from the given offset on.
+     */
+    private static void box(@NotNull double[] points, final int dimensions,
+            final int from, final int to, final int offset, @NotNull double[]
+            lows, @NotNull double[] highs) {
+        Arrays.fill(lows, offset, offset + dimensions,
+                Double.POSITIVE_INFINITY);
+        Arrays.fill(highs, offset, offset + dimensions,
+                Double.NEGATIVE_INFINITY);
+        for (int id = from; id < to; ++id) {
+            for (int i = 0; i < dimensions; ++i) {
+                final double VALUE = points[id * dimensions + i];
+                lows[offset + i] = Math.min(lows[offset + i], VALUE);
+                highs[offset + i] = Math.max(highs[offset + i], VALUE);
+            }//end for
+        }//end for
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Kd-Tree Furthest - leaf size: %d",
+                this.leafSize);
+    }
+
+}//end class KdTreeFurthest
\ No newline at end of file
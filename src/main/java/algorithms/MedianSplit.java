@@ -0,0 +1,251 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.VectorStore;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * The layout of a balanced binary tree over the ids of a {@link VectorStore}.
+ * The ids are split recursively at the median of the dimension where they
+ * spread the most, until at most leafSize of them are left, so every node
+ * covers a contiguous range of the split order. The nodes are laid out as a
+ * binary heap, i.e. the children of the node i are the nodes 2i + 1 and 2i +
+ * 2, and the slots of the heap below a shallow leaf are left without a node.
+ */
+final class MedianSplit {
+
+    /**
+     * The minimum number of ids of a node, for its children to be split in
+     * parallel.
+     */
+    private static final int PARALLEL_SIZE = 1 << 12;
+
+    /**
+     * The maximum number of ids of a leaf.
+     */
+    private final int leafSize;
+
+    /**
+     * The ids of the {@link VectorStore}, in the split order.
+     */
+    private final @NotNull int[] order;
+
+    /**
+     * The 1st position of every node in the split order, inclusive, or -1 for
+     * the slots without a node.
+     */
+    private final @NotNull int[] nodeFrom;
+
+    /**
+     * The last position of every node in the split order, exclusive.
+     */
+    private final @NotNull int[] nodeTo;
+
+    /**
+     * Splits the ids of a {@link VectorStore}, on the given {@link
+     * ExecutionContext}.
+     * @param store The {@link VectorStore} to split its ids.
+     * @param leafSize The maximum number of ids of a leaf.
+     * @param context The {@link ExecutionContext} to split the ids on.
+     * @throws IllegalArgumentException If {@code leafSize < 1}.
+     */
+    MedianSplit(@NotNull VectorStore store, final int leafSize, @NotNull
+            ExecutionContext context) {
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Argument leafSize must be >= " +
+                    "1.");
+        }//end if
+
+        final int SIZE = store.size();
+        int depth = 0;
+        while (((SIZE - 1) >> depth) + 1 > leafSize) {
+            ++depth;
+        }//end while
+
+        this.leafSize = leafSize;
+        this.order = IntStream.range(0, SIZE).toArray();
+        this.nodeFrom = new int[(2 << depth) - 1];
+        this.nodeTo = new int[this.nodeFrom.length];
+        Arrays.fill(this.nodeFrom, -1);
+        context.pool().invoke(new Split(store, this.order, this.nodeFrom,
+                this.nodeTo, leafSize, 0, 0, SIZE));
+    }
+
+    /**
+     * Gets the ids of the {@link VectorStore}, in the split order. The array
+     * is not copied.
+     * @return The ids of the {@link VectorStore}, in the split order.
+     */
+    @NotNull int[] order() {
+        return this.order;
+    }
+
+    /**
+     * Gets the number of slots of the heap, including the ones without a
+     * node.
+     * @return The number of slots of the heap.
+     */
+    int slots() {
+        return this.nodeFrom.length;
+    }
+
+    /**
+     * Checks if a slot of the heap holds a node.
+     * @param node The slot.
+     * @return True if the slot holds a node, otherwise false.
+     */
+    boolean exists(final int node) {
+        return this.nodeFrom[node] >= 0;
+    }
+
+    /**
+     * Checks if a node is a leaf.
+     * @param node The node.
+     * @return True if the node has no children, otherwise false.
+     */
+    boolean isLeaf(final int node) {
+        return this.nodeTo[node] - this.nodeFrom[node] <= this.leafSize;
+    }
+
+    /**
+     * Gets the 1st position of a node in the split order.
+     * @param node The node.
+     * @return The 1st position of the node, inclusive.
+     */
+    int from(final int node) {
+        return this.nodeFrom[node];
+    }
+
+    /**
+     * Gets the last position of a node in the split order.
+     * @param node The node.
+     * @return The last position of the node, exclusive.
+     */
+    int to(final int node) {
+        return this.nodeTo[node];
+    }
+
+    /**
+     * Records the range of a node and, unless it is a leaf, reorders its ids
+     * so that the ones of its 1st child come first, and splits the children in
+     * parallel.
+     */
+    private static class Split extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull VectorStore store;
+        private final @NotNull int[] order;
+        private final @NotNull int[] nodeFrom;
+        private final @NotNull int[] nodeTo;
+        private final int leafSize;
+        private final int node;
+        private final int from;
+        private final int to;
+
+        Split(@NotNull VectorStore store, @NotNull int[] order, @NotNull int[]
+                nodeFrom, @NotNull int[] nodeTo, final int leafSize, final int
+                node, final int from, final int to) {
+            this.store = store;
+            this.order = order;
+            this.nodeFrom = nodeFrom;
+            this.nodeTo = nodeTo;
+            this.leafSize = leafSize;
+            this.node = node;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            this.nodeFrom[this.node] = this.from;
+            this.nodeTo[this.node] = this.to;
+            if (this.to - this.from <= this.leafSize) {
+                return;
+            }//end if
+
+            final int MIDDLE = (this.from + this.to) >>> 1;
+            this.partition(this.widestDimension(), MIDDLE);
+            Split left = new Split(this.store, this.order, this.nodeFrom,
+                    this.nodeTo, this.leafSize, 2 * this.node + 1, this.from,
+                    MIDDLE);
+            Split right = new Split(this.store, this.order, this.nodeFrom,
+                    this.nodeTo, this.leafSize, 2 * this.node + 2, MIDDLE,
+                    this.to);
+            if (this.to - this.from < PARALLEL_SIZE) {
+                left.compute();
+                right.compute();
+            } else {
+                RecursiveAction.invokeAll(left, right);
+            }//end if
+        }
+
+        /**
+         * Finds the dimension where the ids of the node spread the most.
+         */
+        private int widestDimension() {
+            final int DIMENSIONS = this.store.dimensions();
+            final double[] MIN = new double[DIMENSIONS];
+            final double[] MAX = new double[DIMENSIONS];
+            Arrays.fill(MIN, Double.POSITIVE_INFINITY);
+            Arrays.fill(MAX, Double.NEGATIVE_INFINITY);
+            for (int j = this.from; j < this.to; ++j) {
+                for (int i = 0; i < DIMENSIONS; ++i) {
+                    final double VALUE = this.store.get(this.order[j], i);
+                    MIN[i] = Math.min(MIN[i], VALUE);
+                    MAX[i] = Math.max(MAX[i], VALUE);
+                }//end for
+            }//end for
+
+            int widest = 0;
+            for (int i = 1; i < DIMENSIONS; ++i) {
+                if (MAX[i] - MIN[i] > MAX[widest] - MIN[widest]) {
+                    widest = i;
+                }//end if
+            }//end for
+
+            return widest;
+        }
+
+        /**
+         * Reorders the ids of the node with quickselect, so that the one at
+         * the given position has its sorted position in the given dimension.
+         */
+        private void partition(final int dimension, final int nth) {
+            int low = this.from;
+            int high = this.to - 1;
+            while (low < high) {
+                final double PIVOT = this.store.get(this.order[(low + high) >>>
+                        1], dimension);
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (this.store.get(this.order[i], dimension) < PIVOT) {
+                        ++i;
+                    }//end while
+                    while (this.store.get(this.order[j], dimension) > PIVOT) {
+                        --j;
+                    }//end while
+                    if (i <= j) {
+                        final int SWAP = this.order[i];
+                        this.order[i++] = this.order[j];
+                        this.order[j--] = SWAP;
+                    }//end if
+                }//end while
+                if (nth <= j) {
+                    high = j;
+                } else if (nth >= i) {
+                    low = i;
+                } else {
+                    break;
+                }//end if
+            }//end while
+        }
+
+    }//end inner class Split
+
+}//end class MedianSplit
\ No newline at end of file
@@ -0,0 +1,360 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A serving layer around a {@link FurthestItems}, for many concurrent callers
+ * that ask a single query item each. The single queries are queued and grouped
+ * into micro-batches, that are answered by {@link
+ * FurthestItems#findBatch(List, int)} of the wrapped algorithm. A batch is
+ * dispatched when it reaches its maximum size, or when its oldest query has
+ * waited for the maximum delay. The callers wait on a {@link
+ * CompletableFuture} per query. The queue is guarded by a {@link
+ * ReentrantLock} instead of a monitor, so that waiting callers never pin the
+ * carrier thread, if they are virtual threads.
+ * @param <T> The type of the items.
+ */
+public class MicroBatching<T> implements FurthestItems<T>, AutoCloseable {
+
+    /**
+     * A single query item, waiting to be answered.
+     */
+    private class Request {
+
+        final @NotNull T QUERY;
+        final int K;
+        final long ARRIVAL;
+        final @NotNull CompletableFuture<Collection<T>> FUTURE =
+                new CompletableFuture<>();
+
+        Request(@NotNull T query, final int k) {
+            this.QUERY = query;
+            this.K = k;
+            this.ARRIVAL = System.nanoTime();
+        }
+
+    }//end inner class Request
+
+    /**
+     * The {@link FurthestItems} that answers the micro-batches.
+     */
+    private final @NotNull FurthestItems<T> algorithm;
+
+    /**
+     * The maximum number of query items of a micro-batch.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * The maximum time, in nanoseconds, that a query item waits for its
+     * micro-batch to fill.
+     */
+    private final long maxDelay;
+
+    /**
+     * Guards the queue and the closed flag.
+     */
+    private final @NotNull ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when a query item is queued, or when this {@link
+     * MicroBatching} is closed.
+     */
+    private final @NotNull Condition changed = this.lock.newCondition();
+
+    /**
+     * The query items that are not dispatched yet, in arrival order.
+     */
+    private final @NotNull Deque<Request> queue = new ArrayDeque<>();
+
+    /**
+     * The thread that dispatches the micro-batches.
+     */
+    private final @NotNull Thread dispatcher;
+
+    /**
+     * Indicates if this {@link MicroBatching} accepts no more query items.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a {@link MicroBatching} and starts its dispatcher thread.
+     * @param algorithm The {@link FurthestItems} that answers the
+     * micro-batches.
+     * @param maxBatchSize The maximum number of query items of a micro-batch.
+     * @param maxDelay The maximum time that a query item waits for its
+     * micro-batch to fill.
+     * @param unit The {@link TimeUnit} of maxDelay.
+     * @throws IllegalArgumentException If {@code maxBatchSize < 1}.
+     * @throws IllegalArgumentException If {@code maxDelay < 0}.
+     */
+    public MicroBatching(@NotNull FurthestItems<T> algorithm, final int
+            maxBatchSize, final long maxDelay, @NotNull TimeUnit unit) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Argument maxBatchSize must " +
+                    "be >= 1.");
+        }//end if
+
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("Argument maxDelay must be " +
+                    ">= 0.");
+        }//end if
+
+        this.algorithm = algorithm;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = unit.toNanos(maxDelay);
+        this.dispatcher = new Thread(this::dispatch, "MicroBatching-" +
+                algorithm);
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * Queues a query item, to be answered with its micro-batch.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link CompletableFuture} that is completed with the
+     * k-furthest items of the query item, or exceptionally with its own
+     * exception. It is completed on the {@link ExecutionContext} of the
+     * wrapped {@link FurthestItems}.
+     * @throws IllegalStateException If this {@link MicroBatching} is closed.
+     */
+    public @NotNull CompletableFuture<Collection<T>> submit(@NotNull T query,
+            final int k) {
+        Request request = new Request(query, k);
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                throw new IllegalStateException("MicroBatching is closed.");
+            }//end if
+
+            this.queue.addLast(request);
+            if (this.queue.size() == 1 || this.queue.size() >=
+                    this.maxBatchSize) {
+                this.changed.signal();
+            }//end if
+        } finally {
+            this.lock.unlock();
+        }//end try
+
+        return request.FUTURE;
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, by
+     * queueing it and waiting for its micro-batch.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return The k-furthest items of the query item, as computed by the
+     * wrapped {@link FurthestItems}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     * @throws IllegalStateException If this {@link MicroBatching} is closed.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        try {
+            return this.submit(query, k).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }//end if
+            throw e;
+        }//end try
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items, that is
+     * passed directly to the wrapped {@link FurthestItems}.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        return this.algorithm.findBatch(queries, k);
+    }
+
+    @Override
+    public @NotNull Map<T, ? extends Collection<T>> find(@NotNull Collection<T>
+            query, final int k) {
+        return this.algorithm.find(query, k);
+    }
+
+    @Override
+    public long version() {
+        return this.algorithm.version();
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.algorithm.getExecutionContext();
+    }
+
+    /**
+     * Stops accepting query items. The query items that are already queued
+     * are still answered before this method returns, but their {@link
+     * CompletableFuture}s may be completed shortly after, on the {@link
+     * ExecutionContext}.
+     */
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            this.closed = true;
+            this.changed.signal();
+        } finally {
+            this.lock.unlock();
+        }//end try
+
+        boolean interrupted = false;
+        while (this.dispatcher.isAlive()) {
+            try {
+                this.dispatcher.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }//end try
+        }//end while
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }//end if
+    }
+
+    /**
+     * The loop of the dispatcher thread. It waits until a micro-batch is full,
+     * or its oldest query item has waited for the maximum delay, and then
+     * answers it.
+     */
+    private void dispatch() {
+        while (true) {
+            List<Request> batch = new ArrayList<>();
+            this.lock.lock();
+            try {
+                while (this.queue.isEmpty() && !this.closed) {
+                    this.changed.awaitUninterruptibly();
+                }//end while
+
+                if (this.queue.isEmpty()) {
+                    return;
+                }//end if
+
+                long remaining;
+                while (this.queue.size() < this.maxBatchSize && !this.closed &&
+                        (remaining = this.queue.peekFirst().ARRIVAL +
+                        this.maxDelay - System.nanoTime()) > 0) {
+                    try {
+                        this.changed.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        //Only close() stops the dispatcher
+                    }//end try
+                }//end while
+
+                while (batch.size() < this.maxBatchSize &&
+                        !this.queue.isEmpty()) {
+                    batch.add(this.queue.removeFirst());
+                }//end while
+            } finally {
+                this.lock.unlock();
+            }//end try
+
+            this.answer(batch);
+        }//end while
+    }
+
+    /**
+     * Answers a micro-batch, with a call of {@link
+     * FurthestItems#findBatch(List, int)} per distinct k. If such a call
+     * fails, its query items are answered again one by one, in parallel, so
+     * that a bad query item fails only its own {@link CompletableFuture}.
+     */
+    private void answer(@NotNull List<Request> batch) {
+        Map<Integer, List<Request>> byK = new HashMap<>();
+        for (Request request : batch) {
+            byK.computeIfAbsent(request.K, key -> new ArrayList<>())
+               .add(request);
+        }//end for
+
+        byK.forEach((k, requests) -> {
+            List<T> queries = new ArrayList<>(requests.size());
+            for (Request request : requests) {
+                queries.add(request.QUERY);
+            }//end for
+
+            try {
+                BatchResult<T> result = this.algorithm.findBatch(queries, k);
+                for (int q = 0; q < requests.size(); ++q) {
+                    List<T> furthest = new ArrayList<>(result.count(q));
+                    for (int i = 0; i < result.count(q); ++i) {
+                        furthest.add(result.item(q, i));
+                    }//end for
+                    this.complete(requests.get(q), furthest);
+                }//end for
+            } catch (RuntimeException e) {
+                this.getExecutionContext().run(() -> requests.parallelStream()
+                                                             .forEach(
+                                                             this::retry));
+            } catch (Error e) {
+                for (Request request : requests) {
+                    this.fail(request, e);
+                }//end for
+            }//end try
+        });
+    }
+
+    /**
+     * Answers a single query item of a failed micro-batch, with {@link
+     * FurthestItems#find(Object, int)} of the wrapped algorithm.
+     * @param request The query item.
+     */
+    private void retry(@NotNull Request request) {
+        try {
+            this.complete(request, this.algorithm.find(request.QUERY,
+                    request.K));
+        } catch (RuntimeException | Error e) {
+            this.fail(request, e);
+        }//end try
+    }
+
+    /**
+     * Completes the {@link CompletableFuture} of a query item on the {@link
+     * ExecutionContext}, so that the dependent stages of the callers never
+     * run on the dispatcher thread.
+     * @param request The query item.
+     * @param furthest The k-furthest items of the query item.
+     */
+    private void complete(@NotNull Request request, @NotNull Collection<T>
+            furthest) {
+        request.FUTURE.completeAsync(() -> furthest,
+                this.getExecutionContext().pool());
+    }
+
+    /**
+     * Completes the {@link CompletableFuture} of a query item exceptionally,
+     * on the {@link ExecutionContext}.
+     * @param request The query item.
+     * @param e The exception of the query item.
+     */
+    private void fail(@NotNull Request request, @NotNull Throwable e) {
+        this.getExecutionContext().pool().execute(() ->
+                request.FUTURE.completeExceptionally(e));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Micro Batching - max batch size: %d - %s",
+                this.maxBatchSize, this.algorithm);
+    }
+
+}//end class MicroBatching
\ No newline at end of file
@@ -0,0 +1,409 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
+import util.IndexHeap;
+import util.TopK;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem on any metric,
+ * by pruning a brute force scan with a table of pivot distances. At build
+ * time, P pivots are chosen among the reference items, and the distances of
+ * every item from every pivot are stored as floats. By the triangle
+ * inequality, an item x is at most min_p (d(q, p) + d(x, p)) away from a query
+ * q, so the items are evaluated in descending order of that bound, and the
+ * scan stops as soon as it falls below the k-th furthest distance found so
+ * far. Every query thus costs P exact distance evaluations, plus the ones of
+ * a few seeds, which are the items furthest from the pivot nearest to the
+ * query, plus the ones of the items that are not pruned.
+ * @param <T> The type of the items.
+ */
+public class PivotTable<T> extends EvaluationStats implements FurthestItems<T> {
+
+    /**
+     * The ways to choose the pivots.
+     */
+    public enum PivotSelection {
+
+        /**
+         * The pivots are chosen uniformly at random.
+         */
+        RANDOM,
+
+        /**
+         * The 1st pivot is chosen at random, and every next one is the item
+         * furthest from its nearest pivot so far. The pivots thus lie on the
+         * outskirts of the universe, which tightens the lower bounds but
+         * loosens the upper ones, so it suits spread out data.
+         */
+        FURTHEST_FIRST
+
+    }//end enum PivotSelection
+
+    /**
+     * The relative amount that the bounds are raised by, so that the
+     * rounding of the distances to floats never prunes a furthest item.
+     */
+    private static final double SLACK = 1e-6;
+
+    /**
+     * The number of items, furthest from every pivot, that are kept as the
+     * seeds of the queries nearest to that pivot.
+     */
+    private static final int SEEDS = 32;
+
+    /**
+     * A {@link List} with the reference items this {@link PivotTable} runs on.
+     * The id of every item is its index in this {@link List}.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * A {@link ToDoubleBiFunction} with the properties of a metric, to compute
+     * the distance between 2 items.
+     */
+    private final @NotNull ToDoubleBiFunction<T, T> distFunction;
+
+    /**
+     * The ids of the pivots.
+     */
+    private final @NotNull int[] pivots;
+
+    /**
+     * The distances of every item from every pivot, in row-major order, i.e.
+     * the distance of the item with id x from the p-th pivot is at x * P + p.
+     */
+    private final @NotNull float[] table;
+
+    /**
+     * The ids of the items furthest from every pivot, i.e. the ids of the
+     * items furthest from the p-th pivot are in the p-th array.
+     */
+    private final @NotNull int[][] seeds;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * PivotTable} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * Creates a {@link PivotTable}, ready to accept queries. The pivots are
+     * chosen by {@link PivotSelection#RANDOM}.
+     * @param universe A {@link Collection} with the reference items.
+     * @param distFunction A {@link ToDoubleBiFunction} with the properties of
+     * a metric, to compute the distance between 2 items.
+     * @param p The number of pivots.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code p < 1 || p >
+     * universe.size()}.
+     */
+    public PivotTable(@NotNull Collection<T> universe, @NotNull
+            ToDoubleBiFunction<T, T> distFunction, final int p) {
+        this(universe, distFunction, p, PivotSelection.RANDOM,
+                ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link PivotTable}, ready to accept queries. The table is
+     * computed on the given {@link ExecutionContext}, which the queries then
+     * run on too, unless {@link #setExecutionContext(ExecutionContext)} is
+     * called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param distFunction A {@link ToDoubleBiFunction} with the properties of
+     * a metric, to compute the distance between 2 items.
+     * @param p The number of pivots.
+     * @param selection The {@link PivotSelection} to choose the pivots by.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code p < 1 || p >
+     * universe.size()}.
+     */
+    public PivotTable(@NotNull Collection<T> universe, @NotNull
+            ToDoubleBiFunction<T, T> distFunction, final int p, @NotNull
+            PivotSelection selection, @NotNull ExecutionContext context) {
+        super(universe.size());
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        if (p < 1 || p > universe.size()) {
+            throw new IllegalArgumentException("Argument p must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        this.items = new ArrayList<>(universe);
+        this.distFunction = distFunction;
+        this.context = context;
+        this.pivots = new int[p];
+        this.table = new float[Math.multiplyExact(this.items.size(), p)];
+
+        final int SIZE = this.items.size();
+        if (PivotSelection.RANDOM == selection) {
+            final int[] IDS = ThreadLocalRandom.current().ints(0, SIZE)
+                                                         .distinct()
+                                                         .limit(p)
+                                                         .toArray();
+            System.arraycopy(IDS, 0, this.pivots, 0, p);
+            for (int i = 0; i < p; ++i) {
+                this.fillColumn(i);
+            }//end for
+        } else {
+            //The distance of every item from its nearest pivot so far
+            final double[] NEAREST = new double[SIZE];
+            Arrays.fill(NEAREST, Double.POSITIVE_INFINITY);
+            this.pivots[0] = ThreadLocalRandom.current().nextInt(SIZE);
+            for (int i = 0; i < p; ++i) {
+                this.fillColumn(i);
+                int next = 0;
+                for (int x = 0; x < SIZE; ++x) {
+                    NEAREST[x] = Math.min(NEAREST[x], this.table[x * p + i]);
+                    if (NEAREST[x] > NEAREST[next]) {
+                        next = x;
+                    }//end if
+                }//end for
+                if (i + 1 < p) {
+                    this.pivots[i + 1] = next;
+                }//end if
+            }//end for
+        }//end if
+
+        this.seeds = new int[p][];
+        for (int i = 0; i < p; ++i) {
+            TopK topK = TopK.local(Math.min(SEEDS, SIZE));
+            for (int x = 0; x < SIZE; ++x) {
+                topK.offer(x, this.table[x * p + i]);
+            }//end for
+            this.seeds[i] = topK.ids();
+        }//end for
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        TopK topK = this.select(query, k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        return ScoredItems.of(this.select(query, k), this.items, false);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final int[] IDS = new int[QUERIES.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        this.context.run(() -> IntStream.range(0, QUERIES.size())
+                                        .parallel()
+                                        .forEach(q -> BatchResult.fill(
+                                                this.select(QUERIES.get(q), k),
+                                                q * k, k, IDS, DISTANCES)));
+
+        return new BatchResult<>(QUERIES, this.items, k, IDS, DISTANCES);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query item, with their distances. The
+     * pivots and the seeds of the nearest pivot are evaluated first, to set a
+     * high floor early. Then a single pass over the table bounds
+     * every item from above and from below, and the k-th largest lower bound
+     * filters out the items whose upper bound can't reach it. The remaining
+     * candidates are evaluated in descending order of their upper bounds,
+     * until the next one can't beat the k-th furthest distance.
+     */
+    private @NotNull TopK select(@NotNull T query, final int k) {
+        final int P = this.pivots.length;
+        final int SIZE = this.items.size();
+        final double[] QUERY_DISTANCES = new double[P];
+        final boolean[] EVALUATED = new boolean[SIZE];
+        //Not TopK.local, as the metric is user code
+        TopK topK = new TopK(k);
+        //Keeps the k largest lower bounds, that the k-th furthest distance
+        //can't be smaller than
+        TopK lowerBounds = new TopK(k);
+        int nearest = 0;
+        for (int i = 0; i < P; ++i) {
+            QUERY_DISTANCES[i] = this.distance(this.pivots[i], query);
+            EVALUATED[this.pivots[i]] = true;
+            topK.offer(this.pivots[i], QUERY_DISTANCES[i]);
+            if (QUERY_DISTANCES[i] < QUERY_DISTANCES[nearest]) {
+                nearest = i;
+            }//end if
+        }//end for
+
+        //The items furthest from the pivot nearest to the query are likely
+        //far from the query too, so they raise the floor early
+        int evaluations = P;
+        for (int x : this.seeds[nearest]) {
+            if (!EVALUATED[x]) {
+                EVALUATED[x] = true;
+                topK.offer(x, this.distance(x, query));
+                ++evaluations;
+            }//end if
+        }//end for
+        lowerBounds.merge(topK);
+
+        //The items that can't reach the floor are left at negative infinity
+        final double[] UPPER_BOUNDS = new double[SIZE];
+        Arrays.fill(UPPER_BOUNDS, Double.NEGATIVE_INFINITY);
+        for (int x = 0; x < SIZE; ++x) {
+            if (EVALUATED[x]) {
+                continue;
+            }//end if
+            //The floor only rises, so an item whose upper bound falls below it
+            //is abandoned, as its lower bound can't enter lowerBounds either
+            final double FLOOR = lowerBounds.threshold() / (1.0 + SLACK);
+            double upper = Double.POSITIVE_INFINITY;
+            double lower = 0.0;
+            for (int i = 0, row = x * P; i < P && upper >= FLOOR; ++i) {
+                final double D_Q = QUERY_DISTANCES[i];
+                final double D_X = this.table[row + i];
+                //Plain comparisons, as the NaN handling of Math.min and
+                //Math.max is not needed on distances
+                final double SUM = D_Q + D_X;
+                final double DIFFERENCE = (D_Q > D_X) ? D_Q - D_X : D_X - D_Q;
+                upper = (SUM < upper) ? SUM : upper;
+                lower = (DIFFERENCE > lower) ? DIFFERENCE : lower;
+            }//end for
+            if (upper >= FLOOR) {
+                UPPER_BOUNDS[x] = upper * (1.0 + SLACK);
+                lowerBounds.offer(x, lower * (1.0 - SLACK));
+            }//end if
+        }//end for
+
+        final double FLOOR = lowerBounds.threshold();
+        int count = 0;
+        final int[] CANDIDATES = new int[SIZE];
+        for (int x = 0; x < SIZE; ++x) {
+            if (UPPER_BOUNDS[x] >= FLOOR) {
+                CANDIDATES[count++] = x;
+            }//end if
+        }//end for
+
+        final double[] CANDIDATE_BOUNDS = new double[count];
+        for (int c = 0; c < count; ++c) {
+            CANDIDATE_BOUNDS[c] = UPPER_BOUNDS[CANDIDATES[c]];
+        }//end for
+
+        IndexHeap heap = new IndexHeap(CANDIDATE_BOUNDS);
+        while (!heap.isEmpty()) {
+            final int C = heap.poll();
+            if (CANDIDATE_BOUNDS[C] < topK.threshold()) {
+                break;
+            }//end if
+            topK.offer(CANDIDATES[C], this.distance(CANDIDATES[C], query));
+            ++evaluations;
+        }//end while
+
+        this.record(evaluations);
+        return topK;
+    }
+
+    /**
+     * Computes the column of the i-th pivot of the table, in parallel.
+     */
+    private void fillColumn(final int i) {
+        final int P = this.pivots.length;
+        final T PIVOT = this.items.get(this.pivots[i]);
+        this.context.run(() -> IntStream.range(0, this.items.size())
+                                        .parallel()
+                                        .forEach(x -> this.table[x * P + i] =
+                                                (float) this.distFunction
+                                                .applyAsDouble(this.items
+                                                .get(x), PIVOT)));
+    }
+
+    private double distance(final int id, @NotNull T query) {
+        return this.distFunction.applyAsDouble(this.items.get(id), query);
+    }
+
+    /**
+     * Gets the number of pivots.
+     * @return The number of pivots.
+     */
+    public int getP() {
+        return this.pivots.length;
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * PivotTable} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pivot Table - p: %d", this.pivots.length);
+    }
+
+}//end class PivotTable
\ No newline at end of file
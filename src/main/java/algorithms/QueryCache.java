@@ -0,0 +1,427 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import util.Deadline;
+import util.ExecutionContext;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A cache of answers around a {@link FurthestItems}, for traffic where the
+ * same query items repeat. The answers are kept in a bounded {@link
+ * LinkedHashMap} in access order, so the least recently used one is evicted
+ * first. They are keyed on a key of the query item, which is the item itself
+ * by default, or e.g. a {@link util.VectorKey} of its {@link util.Vector}. A
+ * single answer is kept per key, with the largest k that was asked, and it
+ * also answers every smaller k, with its prefix. All the answers are dropped
+ * when the {@link FurthestItems#version()} of the wrapped algorithm changes,
+ * e.g. when its universe or its distance function is set.
+ * @param <T> The type of the items.
+ */
+public class QueryCache<T> implements FurthestItems<T> {
+
+    /**
+     * The cached answer of a query item.
+     */
+    private static class Entry<T> {
+
+        final @NotNull ScoredItems<T> SCORED;
+        final int K;
+
+        /**
+         * Indicates if the items are in descending order of their distances,
+         * so that a prefix of them answers a smaller k.
+         */
+        final boolean ORDERED;
+
+        Entry(@NotNull ScoredItems<T> scored, final int k) {
+            this.SCORED = scored;
+            this.K = k;
+            this.ORDERED = scored.size() == 0 || !Double.isNaN(
+                    scored.distance(0));
+        }
+
+        boolean answers(final int k) {
+            return k == this.K || (this.ORDERED && k < this.K);
+        }
+
+        @NotNull ScoredItems<T> prefix(final int k) {
+            if (k >= this.SCORED.size()) {
+                return this.SCORED;
+            }//end if
+
+            return new ScoredItems<>(this.SCORED.items().subList(0, k),
+                    Arrays.copyOf(this.SCORED.distances(), k));
+        }
+
+    }//end inner class Entry
+
+    /**
+     * The {@link FurthestItems} that answers the misses of the cache.
+     */
+    private final @NotNull FurthestItems<T> algorithm;
+
+    /**
+     * A {@link Function} that accepts a query item and returns its key in the
+     * cache.
+     */
+    private final @NotNull Function<? super T, ?> toKey;
+
+    /**
+     * The maximum number of cached answers.
+     */
+    private final int maximumSize;
+
+    /**
+     * Guards the cached answers, their version and the statistics.
+     */
+    private final @NotNull ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The cached answers, from the least to the most recently used.
+     */
+    private final @NotNull LinkedHashMap<Object, Entry<T>> entries;
+
+    /**
+     * The {@link FurthestItems#version()} of the wrapped algorithm, that the
+     * cached answers belong to.
+     */
+    private long version;
+
+    /**
+     * The number of query items that were answered by the cache.
+     */
+    private long hits;
+
+    /**
+     * The number of query items that were answered by the wrapped algorithm.
+     */
+    private long misses;
+
+    /**
+     * Creates a {@link QueryCache}, keyed on the query items themselves. The
+     * query items must thus have value equality.
+     * @param algorithm The {@link FurthestItems} that answers the misses of
+     * the cache.
+     * @param maximumSize The maximum number of cached answers.
+     * @throws IllegalArgumentException If {@code maximumSize < 1}.
+     */
+    public QueryCache(@NotNull FurthestItems<T> algorithm, final int
+            maximumSize) {
+        this(algorithm, maximumSize, query -> query);
+    }
+
+    /**
+     * Creates a {@link QueryCache}, keyed on a key of the query items.
+     * @param algorithm The {@link FurthestItems} that answers the misses of
+     * the cache.
+     * @param maximumSize The maximum number of cached answers.
+     * @param toKey A {@link Function} that accepts a query item and returns
+     * its key in the cache, which must have value equality.
+     * @throws IllegalArgumentException If {@code maximumSize < 1}.
+     */
+    public QueryCache(@NotNull FurthestItems<T> algorithm, final int
+            maximumSize, @NotNull Function<? super T, ?> toKey) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Argument maximumSize must be " +
+                    ">= 1.");
+        }//end if
+
+        this.algorithm = algorithm;
+        this.maximumSize = maximumSize;
+        this.toKey = toKey;
+        this.version = algorithm.version();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry<T>>
+                    eldest) {
+                return this.size() > QueryCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, from the
+     * cache if possible.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link Collection} with the k-furthest items, from the query
+     * item, as the wrapped algorithm computes them.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        return this.findScored(query, k).items();
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, keeping
+     * the distances, from the cache if possible. If the wrapped algorithm does
+     * not support {@link FurthestItems#findScored(Object, int)}, the distances
+     * are NaN.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, as the wrapped algorithm computes them.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        QueryCache.checkK(k);
+        final Object KEY = this.toKey.apply(query);
+        final long VERSION;
+        this.lock.lock();
+        try {
+            final ScoredItems<T> CACHED = this.lookup(KEY, k);
+            if (CACHED != null) {
+                return CACHED;
+            }//end if
+            VERSION = this.version;
+        } finally {
+            this.lock.unlock();
+        }//end try
+
+        ScoredItems<T> scored;
+        try {
+            scored = this.algorithm.findScored(query, k);
+        } catch (UnsupportedOperationException e) {
+            final List<T> ITEMS = new ArrayList<>(this.algorithm.find(query,
+                    k));
+            final double[] DISTANCES = new double[ITEMS.size()];
+            Arrays.fill(DISTANCES, Double.NaN);
+            scored = new ScoredItems<>(ITEMS, DISTANCES);
+        }//end try
+
+        this.store(KEY, k, scored, VERSION);
+        return scored;
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items that miss the cache are answered by a single {@link
+     * FurthestItems#findBatch(List, int)} of the wrapped algorithm.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, as the wrapped algorithm computes them.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        QueryCache.checkK(k);
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final List<Object> KEYS = new ArrayList<>(QUERIES.size());
+        for (T query : QUERIES) {
+            KEYS.add(this.toKey.apply(query));
+        }//end for
+
+        final List<ScoredItems<T>> RESULTS = new ArrayList<>(QUERIES.size());
+        final List<Integer> MISSES = new ArrayList<>();
+        final long VERSION;
+        this.lock.lock();
+        try {
+            for (int q = 0; q < QUERIES.size(); ++q) {
+                final ScoredItems<T> CACHED = this.lookup(KEYS.get(q), k);
+                RESULTS.add(CACHED);
+                if (CACHED == null) {
+                    MISSES.add(q);
+                }//end if
+            }//end for
+            VERSION = this.version;
+        } finally {
+            this.lock.unlock();
+        }//end try
+
+        if (!MISSES.isEmpty()) {
+            final List<T> MISSED = new ArrayList<>(MISSES.size());
+            for (int q : MISSES) {
+                MISSED.add(QUERIES.get(q));
+            }//end for
+
+            final BatchResult<T> BATCH = this.algorithm.findBatch(MISSED, k);
+            for (int i = 0; i < MISSES.size(); ++i) {
+                final int Q = MISSES.get(i);
+                RESULTS.set(Q, BATCH.scored(i));
+                this.store(KEYS.get(Q), k, RESULTS.get(Q), VERSION);
+            }//end for
+        }//end if
+
+        return BatchResult.of(QUERIES, k, RESULTS);
+    }
+
+    /**
+     * Solves the k-furthest items problem, with a single query item, before a
+     * {@link Deadline}, from the cache if possible. A cached answer is always
+     * complete, and only the complete answers of the wrapped algorithm are
+     * cached.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with the best furthest items found and
+     * whether the algorithm finished.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BoundedResult<T> findWithin(@NotNull T query, final int k,
+            @NotNull Deadline deadline) {
+        QueryCache.checkK(k);
+        final Object KEY = this.toKey.apply(query);
+        final long VERSION;
+        this.lock.lock();
+        try {
+            final ScoredItems<T> CACHED = this.lookup(KEY, k);
+            if (CACHED != null) {
+                return new BoundedResult<>(CACHED, true);
+            }//end if
+            VERSION = this.version;
+        } finally {
+            this.lock.unlock();
+        }//end try
+
+        final BoundedResult<T> RESULT = this.algorithm.findWithin(query, k,
+                deadline);
+        if (RESULT.isComplete()) {
+            this.store(KEY, k, RESULT.scored(), VERSION);
+        }//end if
+
+        return RESULT;
+    }
+
+    /**
+     * Drops all the cached answers.
+     */
+    public void clear() {
+        this.lock.lock();
+        try {
+            this.entries.clear();
+        } finally {
+            this.lock.unlock();
+        }//end try
+    }
+
+    /**
+     * Gets the number of cached answers.
+     * @return The number of cached answers.
+     */
+    public int size() {
+        this.lock.lock();
+        try {
+            this.synchronize();
+            return this.entries.size();
+        } finally {
+            this.lock.unlock();
+        }//end try
+    }
+
+    /**
+     * Gets the number of query items that were answered by the cache.
+     * @return The number of hits of the cache.
+     */
+    public long hitCount() {
+        this.lock.lock();
+        try {
+            return this.hits;
+        } finally {
+            this.lock.unlock();
+        }//end try
+    }
+
+    /**
+     * Gets the number of query items that were answered by the wrapped
+     * algorithm.
+     * @return The number of misses of the cache.
+     */
+    public long missCount() {
+        this.lock.lock();
+        try {
+            return this.misses;
+        } finally {
+            this.lock.unlock();
+        }//end try
+    }
+
+    @Override
+    public long version() {
+        return this.algorithm.version();
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.algorithm.getExecutionContext();
+    }
+
+    /**
+     * Looks up the answer of a key, counting the hit or the miss. The lock
+     * must be held.
+     */
+    private @Nullable ScoredItems<T> lookup(@NotNull Object key, final int
+            k) {
+        this.synchronize();
+        final Entry<T> ENTRY = this.entries.get(key);
+        if (ENTRY != null && ENTRY.answers(k)) {
+            ++this.hits;
+            return ENTRY.prefix(k);
+        }//end if
+
+        ++this.misses;
+        return null;
+    }
+
+    /**
+     * Caches the answer of a key, unless the version of the wrapped algorithm
+     * has changed since it was computed, or a larger k is already cached.
+     */
+    private void store(@NotNull Object key, final int k, @NotNull
+            ScoredItems<T> scored, final long version) {
+        this.lock.lock();
+        try {
+            this.synchronize();
+            if (this.version != version) {
+                return;
+            }//end if
+
+            final Entry<T> ENTRY = this.entries.get(key);
+            if (ENTRY == null || ENTRY.K < k) {
+                this.entries.put(key, new Entry<>(scored, k));
+            }//end if
+        } finally {
+            this.lock.unlock();
+        }//end try
+    }
+
+    /**
+     * Drops all the cached answers, if the version of the wrapped algorithm
+     * has changed. The lock must be held.
+     */
+    private void synchronize() {
+        final long VERSION = this.algorithm.version();
+        if (VERSION != this.version) {
+            this.entries.clear();
+            this.version = VERSION;
+        }//end if
+    }
+
+    private static void checkK(final int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Query Cache - maximumSize: %d - %s",
+                this.maximumSize, this.algorithm);
+    }
+
+}//end class QueryCache
\ No newline at end of file
@@ -1,7 +1,12 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import util.Deadline;
+import util.ExecutionContext;
+import util.TopK;
 import util.Vector;
+import util.VectorStore;
 
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
@@ -17,10 +22,106 @@ import java.util.stream.Stream;
 public class QueryDependent<T> implements FurthestItems<T> {
 
     /**
-     * A {@link Collection} with the reference items this {@link QueryDependent}
-     * runs on.
+     * A candidate of a random line, with its projected distance from the
+     * query item on that line.
      */
-    private @NotNull Collection<T> universe;
+    private static class Pair implements Comparable<Pair> {
+
+        final int X;
+        final int I;
+        final double VALUE;
+
+        Pair(final int x, final int i, final double value) {
+            this.X = x;
+            this.I = i;
+            this.VALUE = value;
+        }
+
+        @Override
+        public int compareTo(@NotNull Pair o) {
+            return Double.compare(this.VALUE, o.VALUE);
+        }
+
+    }//end inner class Pair
+
+    /**
+     * The candidates of a query item, in descending order of their projected
+     * distances. Every random line hands out its candidates in order, and a
+     * {@link PriorityQueue} merges the lines. It keeps the lines that it was
+     * created with, even if the setters replace them.
+     */
+    private class Candidates {
+
+        final @NotNull Vector QUERY;
+        final @NotNull VectorStore STORE;
+        final @NotNull List<int[]> S;
+        final @NotNull double[][] CACHES;
+        final @NotNull double[] VALUES;
+        final @NotNull PriorityQueue<Pair> MAX_Q = new PriorityQueue<>(
+                Comparator.reverseOrder());
+
+        /**
+         * The position of the next candidate of every line.
+         */
+        final @NotNull int[] POSITIONS;
+
+        Candidates(@NotNull T query) {
+            final Vector Q = QueryDependent.this.toVector.apply(query);
+            final List<Vector> A = QueryDependent.this.a;
+            this.QUERY = Q;
+            this.STORE = QueryDependent.this.store;
+            this.S = QueryDependent.this.s;
+            this.CACHES = QueryDependent.this.caches.clone();
+            this.VALUES = QueryDependent.this.context.invoke(() -> A
+                    .parallelStream()
+                    .mapToDouble(a -> Vector.dotProduct(a, Q))
+                    .toArray());
+            this.POSITIONS = new int[this.S.size()];
+            for (int i = 0; i < this.S.size(); ++i) {
+                this.advance(i);
+            }//end for
+        }
+
+        boolean hasNext() {
+            return !this.MAX_Q.isEmpty();
+        }
+
+        /**
+         * Removes the candidate with the largest projected distance and
+         * replaces it with the next candidate of its line.
+         */
+        int next() {
+            final Pair MAX_PAIR = this.MAX_Q.remove();
+            this.advance(MAX_PAIR.I);
+            return MAX_PAIR.X;
+        }
+
+        double sqrDistance(final int x) {
+            return this.STORE.sqrDistance(x, this.QUERY);
+        }
+
+        private void advance(final int i) {
+            final int[] LINE = this.S.get(i);
+            if (this.POSITIONS[i] < LINE.length) {
+                final int X = LINE[this.POSITIONS[i]++];
+                this.MAX_Q.add(new Pair(X, i, this.CACHES[i][X] -
+                        this.VALUES[i]));
+            }//end if
+        }
+
+    }//end inner class Candidates
+
+    /**
+     * A {@link List} with the reference items this {@link QueryDependent} runs
+     * on. The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * A {@link VectorStore} with the {@link Vector} representations of the
+     * reference items, addressed by their ids.
+     */
+    private @NotNull VectorStore store;
 
     /**
      * A {@link Function} that accepts an item and returns its {@link Vector}
@@ -28,6 +129,11 @@ public class QueryDependent<T> implements FurthestItems<T> {
      */
     private @NotNull Function<T, Vector> toVector;
 
+    /**
+     * The precision that the {@link VectorStore} stores the coordinates in.
+     */
+    private @NotNull VectorStore.Precision precision;
+
     /**
      * The number of random lines.
      */
@@ -39,58 +145,61 @@ public class QueryDependent<T> implements FurthestItems<T> {
     private int m;
 
     private @NotNull List<Vector> a;
-    private @NotNull List<List<T>> s;
+    private @NotNull List<int[]> s;
 
-    private @NotNull Map<T, Double>[] caches;
+    private @NotNull double[][] caches;
 
-    private static <T> @NotNull List<List<T>> computeS(@NotNull Collection<T>
-            universe, @NotNull Function<T, Vector> toVector, final int l, final
-            int m, @NotNull List<Vector> a, @NotNull Map<T, Double>[] caches) {
-        return IntStream.range(0, l)
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * QueryDependent} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    private static @NotNull List<int[]> computeS(@NotNull VectorStore store,
+            final int l, final int m, @NotNull List<Vector> a, @NotNull
+            double[][] caches, @NotNull ExecutionContext context) {
+        if (m > store.size()) {
+            throw new IllegalArgumentException("Argument m must be <= " +
+                    "universe.size().");
+        }//end if
+
+        return context.invoke(() -> IntStream.range(0, l)
                 .parallel()
                 .mapToObj(i -> {
-                    Map<T, Double> xCache = universe.parallelStream()
-                            .collect(Collectors.toConcurrentMap(
-                                    Function.identity(),
-                                    x -> Vector.dotProduct(a.get(i),
-                                    toVector.apply(x))));
+                    final double[] X_CACHE = new double[store.size()];
+                    store.dotProducts(a.get(i), 0, store.size(), X_CACHE);
                     //Critical line as it is a side effect and we write
                     //concurrently
-                    caches[i] = xCache;
-                    List<T> result = new ArrayList<>(FurthestItems.maxK(
-                            universe,
-                            Comparator.comparingDouble(xCache::get),
-                            m));
-                    result.sort(Comparator.comparingDouble(xCache::get)
-                                          .reversed());
-                    return result;
+                    caches[i] = X_CACHE;
+                    TopK topK = TopK.local(m);
+                    topK.offerAll(X_CACHE, X_CACHE.length, 0);
+                    topK.sortDescending();
+                    return topK.ids();
                 })
-                .collect(Collectors.toList());
-    }
-
-    private static <T> int dimensions(@NotNull Collection<T> universe, @NotNull
-            Function<T, Vector> toVector) {
-        return toVector.apply(universe.stream()
-                                      .findAny()
-                                      .orElseThrow())
-                       .size();
+                .collect(Collectors.toList()));
     }
 
     private static List<Vector> randomVectors(final int num, final int
-            dimensions) {
+            dimensions, @NotNull ExecutionContext context) {
         if (num < 1) {
             throw new IllegalArgumentException("Argument num must be >= 1.");
         }//end if
 
-        return Stream.generate(() -> new Vector(dimensions, i ->
-                            ThreadLocalRandom.current().nextGaussian()))
-                     .parallel()
-                     .limit(num)
-                     .collect(Collectors.toList());
+        return context.invoke(() -> Stream.generate(() -> new Vector(
+                dimensions, i -> ThreadLocalRandom.current().nextGaussian()))
+                                          .parallel()
+                                          .limit(num)
+                                          .collect(Collectors.toList()));
     }
 
     /**
-     * Creates a {@link QueryDependent}, ready to accept queries.
+     * Creates a {@link QueryDependent}, ready to accept queries. The
+     * coordinates are stored in double precision.
      * @param universe A {@link Collection} with the reference items.
      * @param toVector A {@link Function} that accepts an item and returns its
      * {@link Vector} representation.
@@ -102,6 +211,47 @@ public class QueryDependent<T> implements FurthestItems<T> {
      */
     public QueryDependent(@NotNull Collection<T> universe, @NotNull Function<T,
             Vector> toVector, final int l, final int m) {
+        this(universe, toVector, l, m, VectorStore.Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link QueryDependent}, ready to accept queries.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param l The number of random lines.
+     * @param m The number of candidates to be examined at query time.
+     * @param precision The precision that the coordinates are stored in.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code l < 1}.
+     * @throws IllegalArgumentException If {@code m < 1}.
+     */
+    public QueryDependent(@NotNull Collection<T> universe, @NotNull Function<T,
+            Vector> toVector, final int l, final int m, @NotNull
+            VectorStore.Precision precision) {
+        this(universe, toVector, l, m, precision, ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link QueryDependent}, ready to accept queries. The random
+     * lines and their candidates are computed on the given {@link
+     * ExecutionContext}, which the queries then run on too, unless {@link
+     * #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param l The number of random lines.
+     * @param m The number of candidates to be examined at query time.
+     * @param precision The precision that the coordinates are stored in.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code l < 1}.
+     * @throws IllegalArgumentException If {@code m < 1}.
+     */
+    public QueryDependent(@NotNull Collection<T> universe, @NotNull Function<T,
+            Vector> toVector, final int l, final int m, @NotNull
+            VectorStore.Precision precision, @NotNull ExecutionContext
+            context) {
         if (universe.isEmpty()) {
             throw new IllegalArgumentException("Argument Collection universe " +
                     "can't be empty.");
@@ -115,18 +265,18 @@ public class QueryDependent<T> implements FurthestItems<T> {
             throw new IllegalArgumentException("Argument m must be >= 1.");
         }//end if
 
-        @SuppressWarnings("unchecked")
-        Map<T, Double>[] caches = (Map<T, Double>[]) new Map[l];
-
-        this.universe = universe;
+        this.items = new ArrayList<>(universe);
+        this.store = VectorStore.of(this.items, toVector, precision);
         this.toVector = toVector;
+        this.precision = precision;
         this.l = l;
         this.m = m;
-        this.a = QueryDependent.randomVectors(l, QueryDependent.dimensions(
-                universe, toVector));
-        this.s = QueryDependent.computeS(universe, toVector, l, m, this.a,
-                caches);
-        this.caches = caches;
+        this.caches = new double[l][];
+        this.context = context;
+        this.a = QueryDependent.randomVectors(l, this.store.dimensions(),
+                this.context);
+        this.s = QueryDependent.computeS(this.store, l, m, this.a,
+                this.caches, this.context);
     }
 
     /**
@@ -140,58 +290,140 @@ public class QueryDependent<T> implements FurthestItems<T> {
      */
     @Override
     public @NotNull Collection<T> find(@NotNull T query, int k) {
-        if (k != 1) {
-            throw new IllegalArgumentException("Argument k must be 1.");
-        }//end if
+        return Collections.singleton(this.findScored(query, k).item(0));
+    }
+
+    /**
+     * Solves approximately, the k-furthest items problem, with a single query
+     * item, keeping the distance that is computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with the furthest approximate item, from
+     * the query item, and its Euclidean distance.
+     * @throws IllegalArgumentException If {@code k != 1}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, int k) {
+        return this.search(query, k, null).scored();
+    }
+
+    /**
+     * Solves approximately, the k-furthest items problem, with a single query
+     * item, before a {@link Deadline}. The {@link Deadline} is checked before
+     * every candidate after the first, and when it passes, the furthest of the
+     * examined candidates is returned.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with the furthest approximate item, from
+     * the query item, and its Euclidean distance, that is complete if all the
+     * m candidates were examined.
+     * @throws IllegalArgumentException If {@code k != 1}.
+     */
+    @Override
+    public @NotNull BoundedResult<T> findWithin(@NotNull T query, int k,
+            @NotNull Deadline deadline) {
+        return this.search(query, k, deadline);
+    }
 
-        class Pair implements Comparable<Pair> {
-            @NotNull T x;
-            int i;
-            double value;
+    /**
+     * Iterates over the candidates of a query item, in the order that the
+     * query examines them, i.e. in descending order of their projected
+     * distances on the random lines, skipping the repeated ones. The order is
+     * thus only approximately descending in the Euclidean distance, and the
+     * iteration ends after the m candidates of every line.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over the candidates of the query item.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        final Candidates CANDIDATES = new Candidates(query);
+        final List<T> ITEMS = this.items;
+        return new FurthestIterator<>() {
 
-            public Pair(@NotNull T x, int i, double value) {
-                this.x = x;
-                this.i = i;
-                this.value = value;
+            /**
+             * The candidates that are handed out.
+             */
+            final BitSet SEEN = new BitSet(ITEMS.size());
+
+            /**
+             * The next candidate, or -1 if it is not looked up yet.
+             */
+            int next = -1;
+
+            double distance = Double.NaN;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == -1 && CANDIDATES.hasNext()) {
+                    final int X = CANDIDATES.next();
+                    if (!this.SEEN.get(X)) {
+                        this.SEEN.set(X);
+                        this.next = X;
+                    }//end if
+                }//end while
+
+                return this.next != -1;
             }
 
             @Override
-            public int compareTo(@NotNull Pair o) {
-                return Double.compare(this.value, o.value);
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException("All the candidates " +
+                            "are handed out.");
+                }//end if
+
+                final int X = this.next;
+                this.next = -1;
+                this.distance = Math.sqrt(CANDIDATES.sqrDistance(X));
+                return ITEMS.get(X);
             }
-        }//end local class Pair
 
-        final Vector q = this.toVector.apply(query);
-        PriorityQueue<Pair> maxQ = new PriorityQueue<>(
-                Comparator.reverseOrder());
-        List<Double> values = this.a.parallelStream()
-                                    .map(a -> Vector.dotProduct(a, q))
-                                    .collect(Collectors.toList());
-        List<Iterator<T>> iterators = this.s.stream()
-                                            .map(List::iterator)
-                                            .collect(Collectors.toList());
-
-        for (int i = 0; i < this.l; ++i) {
-            T x = iterators.get(i).next();
-            maxQ.add(new Pair(x, i, this.caches[i].get(x) - values.get(i)));
-        }//end for
+            @Override
+            public double distance() {
+                if (Double.isNaN(this.distance)) {
+                    throw new IllegalStateException("Call next() first.");
+                }//end if
 
-        T rual = null;
+                return this.distance;
+            }
+
+        };
+    }
+
+    /**
+     * Examines the candidates of a query item, until all the m candidates are
+     * examined or the {@link Deadline} passes, if there is one.
+     */
+    private @NotNull BoundedResult<T> search(@NotNull T query, int k,
+            @Nullable Deadline deadline) {
+        if (k != 1) {
+            throw new IllegalArgumentException("Argument k must be 1.");
+        }//end if
+
+        final Candidates CANDIDATES = new Candidates(query);
+        int rual = -1;
+        double rualDistance = Double.NEGATIVE_INFINITY;
+        boolean complete = true;
         for (int j = 0; j < this.m; ++j) {
-            if (maxQ.isEmpty()) break;
-            Pair maxPair = maxQ.remove();
-            if (null == rual || Vector.sqrDistance(this.toVector.apply(
-                    maxPair.x), q) > Vector.sqrDistance(this.toVector.apply(
-                    rual), q)) {
-                rual = maxPair.x;
+            if (!CANDIDATES.hasNext()) break;
+            if (j > 0 && deadline != null && deadline.isExpired()) {
+                complete = false;
+                break;
+            }//end if
+            final int X = CANDIDATES.next();
+            final double DISTANCE = CANDIDATES.sqrDistance(X);
+            //The 1st candidate is kept even at a NaN distance, which any
+            //number then beats
+            if (rual == -1 || DISTANCE > rualDistance || (Double.isNaN(
+                    rualDistance) && !Double.isNaN(DISTANCE))) {
+                rual = X;
+                rualDistance = DISTANCE;
             }//end if
-            if (!iterators.get(maxPair.i).hasNext()) continue;
-            T x2 = iterators.get(maxPair.i).next();
-            maxQ.add(new Pair(x2, maxPair.i, this.caches[maxPair.i].get(x2)
-                    - values.get(maxPair.i)));
         }//end for
 
-        return Collections.singleton(rual);
+        return new BoundedResult<>(new ScoredItems<>(List.of(this.items.get(
+                rual)), new double[]{Math.sqrt(rualDistance)}), complete);
     }
 
     /**
@@ -206,14 +438,9 @@ public class QueryDependent<T> implements FurthestItems<T> {
                     "can't be empty.");
         }//end if
 
-        final int d = QueryDependent.dimensions(universe, this.toVector);
-        if (d != this.a.get(0).size()) {
-            this.a = QueryDependent.randomVectors(l, d);
-        }//end if
-
-        this.universe = universe;
-        this.s = QueryDependent.computeS(universe, this.toVector, this.l,
-                this.m, this.a, this.caches);
+        this.items = new ArrayList<>(universe);
+        this.store = VectorStore.of(this.items, this.toVector, this.precision);
+        this.updateS();
     }
 
     /**
@@ -223,8 +450,8 @@ public class QueryDependent<T> implements FurthestItems<T> {
      */
     public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
         this.toVector = toVector;
-        this.s = QueryDependent.computeS(this.universe, toVector, this.l,
-                this.m, this.a, this.caches);
+        this.store = VectorStore.of(this.items, toVector, this.precision);
+        this.updateS();
     }
 
     /**
@@ -242,14 +469,15 @@ public class QueryDependent<T> implements FurthestItems<T> {
         }//end if
 
         if (l > this.caches.length) {
-            @SuppressWarnings("unchecked")
-            Map<T, Double>[] caches = (Map<T, Double>[]) new Map[l];
-            this.caches = caches;
+            this.caches = new double[l][];
         }//end if
 
-        this.a = QueryDependent.randomVectors(l, this.a.get(0).size());
-        this.s = QueryDependent.computeS(this.universe, this.toVector, this.l,
-                this.m, this.a, this.caches);
+        this.l = l;
+        this.a = QueryDependent.randomVectors(l, this.store.dimensions(),
+                this.context);
+        this.s = QueryDependent.computeS(this.store, l, this.m, this.a,
+                this.caches, this.context);
+        ++this.version;
     }
 
     /**
@@ -267,8 +495,45 @@ public class QueryDependent<T> implements FurthestItems<T> {
         }//end if
 
         this.m = m;
-        this.s = QueryDependent.computeS(this.universe, this.toVector, this.l,
-                m, this.a, this.caches);
+        this.s = QueryDependent.computeS(this.store, this.l, m, this.a,
+                this.caches, this.context);
+        ++this.version;
+    }
+
+    /**
+     * Recomputes the candidates of every line, after the {@link VectorStore}
+     * has changed. The random lines are regenerated only if the number of
+     * dimensions has changed.
+     */
+    private void updateS() {
+        if (this.store.dimensions() != this.a.get(0).size()) {
+            this.a = QueryDependent.randomVectors(this.l,
+                    this.store.dimensions(), this.context);
+        }//end if
+
+        this.s = QueryDependent.computeS(this.store, this.l, this.m, this.a,
+                this.caches, this.context);
+        ++this.version;
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * QueryDependent} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
     }
 
     @Override
@@ -0,0 +1,167 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.TopK;
+
+import java.util.*;
+
+/**
+ * The furthest items of a single query item, together with their distances
+ * from it, in descending order of their distances.
+ * @param <T> The type of the items.
+ */
+public final class ScoredItems<T> {
+
+    /**
+     * The furthest items, in descending order of their distances.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * The distances of the furthest items from the query item, in descending
+     * order.
+     */
+    private final @NotNull double[] distances;
+
+    /**
+     * Creates a {@link ScoredItems}. The arguments must already be in
+     * descending order of the distances and they are not copied.
+     * @param items The furthest items.
+     * @param distances The distances of the furthest items from the query
+     * item.
+     * @throws IllegalArgumentException If {@code items.size() !=
+     * distances.length}.
+     */
+    ScoredItems(@NotNull List<T> items, @NotNull double[] distances) {
+        if (items.size() != distances.length) {
+            throw new IllegalArgumentException("Argument distances must have " +
+                    "length items.size().");
+        }//end if
+
+        this.items = Collections.unmodifiableList(items);
+        this.distances = distances;
+    }
+
+    /**
+     * Creates a {@link ScoredItems} from items and their distances, in any
+     * order. The arguments are not modified.
+     * @param items The furthest items.
+     * @param distances The distances of the furthest items from the query
+     * item.
+     * @param <T> The type of the items.
+     * @return A {@link ScoredItems} with the given items, sorted in descending
+     * order of their distances.
+     * @throws IllegalArgumentException If {@code items.size() !=
+     * distances.length}.
+     */
+    static <T> @NotNull ScoredItems<T> sorted(@NotNull List<T> items, @NotNull
+            double[] distances) {
+        if (items.size() != distances.length) {
+            throw new IllegalArgumentException("Argument distances must have " +
+                    "length items.size().");
+        }//end if
+
+        Integer[] order = new Integer[distances.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) ->
+                distances[i]).reversed());
+
+        List<T> sortedItems = new ArrayList<>(order.length);
+        double[] sortedDistances = new double[order.length];
+        for (int i = 0; i < order.length; ++i) {
+            sortedItems.add(items.get(order[i]));
+            sortedDistances[i] = distances[order[i]];
+        }//end for
+
+        return new ScoredItems<>(sortedItems, sortedDistances);
+    }
+
+    /**
+     * Creates a {@link ScoredItems} from the pairs of a {@link TopK}, whose ids
+     * are indices of a {@link List} of items and whose scores are distances.
+     * @param topK The {@link TopK} with the pairs. It is sorted.
+     * @param items The items that the ids are indices of.
+     * @param sqrDistances If true, the scores are squared distances, so their
+     * square roots are kept.
+     * @param <T> The type of the items.
+     * @return A {@link ScoredItems} with the items of the pairs.
+     */
+    static <T> @NotNull ScoredItems<T> of(@NotNull TopK topK, @NotNull List<T>
+            items, final boolean sqrDistances) {
+        topK.sortDescending();
+        List<T> result = new ArrayList<>(topK.size());
+        double[] distances = new double[topK.size()];
+        for (int i = 0; i < distances.length; ++i) {
+            result.add(items.get(topK.id(i)));
+            distances[i] = sqrDistances ? Math.sqrt(Math.max(0.0,
+                    topK.score(i))) : topK.score(i);
+        }//end for
+
+        return new ScoredItems<>(result, distances);
+    }
+
+    /**
+     * Gets the number of furthest items.
+     * @return The number of furthest items.
+     */
+    public int size() {
+        return this.items.size();
+    }
+
+    /**
+     * Gets the i-th furthest item.
+     * @param i The index of the item, in [0, size()).
+     * @return The i-th furthest item.
+     * @throws IndexOutOfBoundsException If {@code i < 0 || i >= size()}.
+     */
+    public T item(final int i) {
+        return this.items.get(i);
+    }
+
+    /**
+     * Gets the distance of the i-th furthest item from the query item.
+     * @param i The index of the item, in [0, size()).
+     * @return The distance of the i-th furthest item.
+     * @throws IndexOutOfBoundsException If {@code i < 0 || i >= size()}.
+     */
+    public double distance(final int i) {
+        Objects.checkIndex(i, this.distances.length);
+        return this.distances[i];
+    }
+
+    /**
+     * Gets the furthest items.
+     * @return An unmodifiable {@link List} with the furthest items, in
+     * descending order of their distances.
+     */
+    public @NotNull List<T> items() {
+        return this.items;
+    }
+
+    /**
+     * Gets the distances of the furthest items from the query item.
+     * @return A new array with the distances, in descending order.
+     */
+    public @NotNull double[] distances() {
+        return this.distances.clone();
+    }
+
+    /**
+     * Gets the sum of the distances of the furthest items from the query item.
+     * @return The sum of the distances.
+     */
+    public double sum() {
+        double sum = 0.0;
+        for (double distance : this.distances) {
+            sum += distance;
+        }//end for
+
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScoredItems - size: %d", this.items.size());
+    }
+
+}//end class ScoredItems
\ No newline at end of file
@@ -1,6 +1,7 @@
 package algorithms;
 
 import org.jetbrains.annotations.NotNull;
+import util.ExecutionContext;
 
 import java.util.*;
 import java.util.function.ToDoubleFunction;
@@ -35,6 +36,12 @@ public class Sort1D<T> implements FurthestItems<T> {
     private @NotNull ToDoubleFunction<T> toDouble;
     private double threshold;
 
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * Sort1D} runs on.
+     */
+    private @NotNull ExecutionContext context = ExecutionContext.common();
+
     public Sort1D(@NotNull Collection<T> universe, @NotNull ToDoubleFunction<T>
             toDouble) {
         if (universe.isEmpty()) {
@@ -113,6 +120,57 @@ public class Sort1D<T> implements FurthestItems<T> {
                 this.universe.subList(lastSafeR, this.universe.size()));
     }
 
+    /**
+     * Solves the k-furthest items problem, with a single query item, keeping
+     * the distances of the items.
+     * @param query The query item.
+     * @param k The number of furthest items to compute.
+     * @return A {@link ScoredItems} with the items of {@link #find(Object,
+     * int)}, in descending order of their distances from the query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        final List<T> ITEMS = new ArrayList<>(this.find(query, k));
+        final double QUERY_VALUE = this.toDouble.applyAsDouble(query);
+        final double[] DISTANCES = new double[ITEMS.size()];
+        for (int i = 0; i < DISTANCES.length; ++i) {
+            DISTANCES[i] = Math.abs(this.toDouble.applyAsDouble(ITEMS.get(i)) -
+                    QUERY_VALUE);
+        }//end for
+
+        return ScoredItems.sorted(ITEMS, DISTANCES);
+    }
+
+    /**
+     * Iterates over the reference items, in descending order of their
+     * distances from a query item. The items are taken exactly, from the two
+     * ends of the sorted items, in constant time each, regardless of delta.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over all the reference items, from
+     * the furthest to the nearest.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        return new EndsIterator<>(this.universe, this::getAsDouble,
+                this.toDouble.applyAsDouble(query));
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * Sort1D} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
     @Override
     public String toString() {
         return "Sort1D";
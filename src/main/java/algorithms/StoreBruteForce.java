@@ -0,0 +1,433 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.Deadline;
+import util.ExecutionContext;
+import util.ParallelTopK;
+import util.Selection;
+import util.TopK;
+import util.Vector;
+import util.VectorStore;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem using brute
+ * force, on the Euclidean distance. The {@link Vector}s of the reference items
+ * are packed in a {@link VectorStore}, so the scan does not touch the items
+ * themselves.
+ * @param <T> The type of the items.
+ */
+public class StoreBruteForce<T> implements FurthestItems<T> {
+
+    /**
+     * The number of distances that are computed in bulk, before they are
+     * offered to the selection.
+     */
+    private static final int BLOCK = 1024;
+
+    /**
+     * A {@link List} with the reference items this {@link StoreBruteForce}
+     * runs on. The id of every item is its index in this {@link List}.
+     */
+    private @NotNull List<T> items;
+
+    /**
+     * A {@link VectorStore} with the {@link Vector} representations of the
+     * reference items, addressed by their ids.
+     */
+    private @NotNull VectorStore store;
+
+    /**
+     * A {@link Function} that accepts an item and returns its {@link Vector}
+     * representation.
+     */
+    private @NotNull Function<T, Vector> toVector;
+
+    /**
+     * The precision that the {@link VectorStore} stores the coordinates in.
+     */
+    private @NotNull VectorStore.Precision precision;
+
+    /**
+     * The number of reference items, above which a single query is answered
+     * in parallel.
+     */
+    private int parallelThreshold = ParallelTopK.DEFAULT_THRESHOLD;
+
+    /**
+     * The {@link Selection} strategy that the furthest items are selected
+     * with.
+     */
+    private @NotNull Selection selection = Selection.AUTO;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * StoreBruteForce} runs on.
+     */
+    private @NotNull ExecutionContext context = ExecutionContext.common();
+
+    /**
+     * The version of the answers, see {@link #version()}.
+     */
+    private volatile long version;
+
+    /**
+     * Creates a {@link StoreBruteForce}, ready to accept queries. The
+     * coordinates are stored in double precision.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public StoreBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector) {
+        this(universe, toVector, VectorStore.Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link StoreBruteForce}, ready to accept queries.
+     * @param universe A {@link Collection} with the reference items.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param precision The precision that the coordinates are stored in.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public StoreBruteForce(@NotNull Collection<T> universe, @NotNull
+            Function<T, Vector> toVector, @NotNull VectorStore.Precision
+            precision) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.toVector = toVector;
+        this.precision = precision;
+        this.setItems(universe);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        TopK topK = this.select(this.toVector.apply(query), k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their Euclidean distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        return ScoredItems.of(this.select(this.toVector.apply(query), k),
+                this.items, true);
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, before a {@link
+     * Deadline}. The scan is checked against the {@link Deadline} before every
+     * block of distances, and when it passes, the best items of the scanned
+     * ones are returned.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @param deadline The {@link Deadline} to stop at.
+     * @return A {@link BoundedResult} with the best furthest items found, in
+     * descending order of their Euclidean distances, that is complete if the
+     * whole universe was scanned.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BoundedResult<T> findWithin(@NotNull T query, final int k,
+            @NotNull Deadline deadline) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        final Vector QUERY = this.toVector.apply(query);
+        final TopK TOP_K;
+        final AtomicBoolean EXPIRED = new AtomicBoolean();
+        if (ParallelTopK.isWorthIt(this.store.size(), this.parallelThreshold,
+                this.context)) {
+            TOP_K = ParallelTopK.select(this.store.size(), k, this.context,
+                    (from, to, t) -> {
+                        if (!this.offer(QUERY, from, to, t, deadline)) {
+                            EXPIRED.set(true);
+                        }//end if
+                    });
+        } else {
+            TOP_K = TopK.local(k);
+            EXPIRED.set(!this.offer(QUERY, 0, this.store.size(), TOP_K,
+                    deadline));
+        }//end if
+
+        return new BoundedResult<>(ScoredItems.of(TOP_K, this.items, true),
+                !EXPIRED.get());
+    }
+
+    /**
+     * Iterates over the reference items, in descending order of their
+     * Euclidean distances from a query item. The distances are computed once,
+     * and the items are handed out by a heap over them, in logarithmic time
+     * each.
+     * @param query The query item.
+     * @return A {@link FurthestIterator} over all the reference items, from
+     * the furthest to the nearest.
+     */
+    @Override
+    public @NotNull FurthestIterator<T> iterate(@NotNull T query) {
+        return new HeapIterator<>(this.items, this.sqrDistances(
+                this.toVector.apply(query), ParallelTopK.isWorthIt(
+                this.store.size(), this.parallelThreshold, this.context)),
+                true);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their Euclidean distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+
+        return BatchResult.euclidean(queries, this.items, k, this.toVector,
+                query -> this.select(query, k), this.context);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query {@link Vector}, with their
+     * squared distances.
+     */
+    private @NotNull TopK select(@NotNull Vector query, final int k) {
+        final boolean PARALLEL = ParallelTopK.isWorthIt(this.store.size(),
+                this.parallelThreshold, this.context);
+        if (this.selection.resolve(this.store.size(), k) ==
+                Selection.QUICKSELECT) {
+            final double[] DISTANCES = this.sqrDistances(query, PARALLEL);
+            return Selection.QUICKSELECT.select(DISTANCES, DISTANCES.length, k);
+        }//end if
+
+        if (PARALLEL) {
+            return ParallelTopK.select(this.store.size(), k, this.context,
+                    (from, to, t) -> this.offer(query, from, to, t));
+        }//end if
+
+        TopK topK = TopK.local(k);
+        this.offer(query, 0, this.store.size(), topK);
+        return topK;
+    }
+
+    /**
+     * Computes the squared distances of all the reference items from a query
+     * {@link Vector}, by id.
+     */
+    private @NotNull double[] sqrDistances(@NotNull Vector query, final
+            boolean parallel) {
+        final double[] DISTANCES = new double[this.store.size()];
+        if (parallel) {
+            final int BLOCKS = (DISTANCES.length + BLOCK - 1) / BLOCK;
+            this.context.run(() -> IntStream.range(0, BLOCKS)
+                                            .parallel()
+                                            .forEach(block -> this.sqrDistances(
+                                                    query, block, DISTANCES)));
+        } else {
+            this.store.sqrDistances(query, 0, DISTANCES.length, DISTANCES);
+        }//end if
+
+        return DISTANCES;
+    }
+
+    /**
+     * Computes the squared distances of a block of ids from a query {@link
+     * Vector}, into their slots of an array with all the distances.
+     */
+    private void sqrDistances(@NotNull Vector query, final int block, @NotNull
+            double[] distances) {
+        final int FROM = block * BLOCK;
+        final int TO = Math.min(distances.length, FROM + BLOCK);
+        this.store.sqrDistances(query, FROM, TO, distances, FROM);
+    }
+
+    private void offer(@NotNull Vector query, final int from, final int to,
+            @NotNull TopK topK) {
+        final double[] DISTANCES = new double[Math.min(BLOCK, to - from)];
+        for (int i = from; i < to; i += BLOCK) {
+            final int END = Math.min(to, i + BLOCK);
+            this.store.sqrDistances(query, i, END, DISTANCES);
+            topK.offerAll(DISTANCES, END - i, i);
+        }//end for
+    }
+
+    /**
+     * Offers a range of ids to a {@link TopK}, until a {@link Deadline}
+     * passes. Returns true if the whole range was offered.
+     */
+    private boolean offer(@NotNull Vector query, final int from, final int to,
+            @NotNull TopK topK, @NotNull Deadline deadline) {
+        for (int i = from; i < to; i += BLOCK) {
+            if (deadline.isExpired()) {
+                return false;
+            }//end if
+            this.offer(query, i, Math.min(to, i + BLOCK), topK);
+        }//end for
+
+        return true;
+    }
+
+    /**
+     * Sets the reference items of this {@link StoreBruteForce}.
+     * @param universe A {@link Collection} with the new reference items.
+     * @throws IllegalArgumentException If the given {@link Collection} is
+     * empty.
+     */
+    public void setUniverse(@NotNull Collection<T> universe) {
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        this.setItems(universe);
+    }
+
+    /**
+     * Sets the {@link Function} that extracts a {@link Vector} from an item.
+     * @param toVector A {@link Function} that extracts a {@link Vector} from an
+     * item.
+     */
+    public void setToVectorFunction(@NotNull Function<T, Vector> toVector) {
+        this.toVector = toVector;
+        this.store = VectorStore.of(this.items, toVector, this.precision);
+        ++this.version;
+    }
+
+    /**
+     * Sets the number of reference items, above which a single query is
+     * answered in parallel, on the {@link ExecutionContext} of this instance.
+     * Queries that run on a thread of another {@link
+     * java.util.concurrent.ForkJoinPool}, or inside a parallel task that
+     * already keeps the pool busy, are answered sequentially.
+     * @param parallelThreshold The number of reference items, above which a
+     * single query is answered in parallel. {@link Integer#MAX_VALUE} disables
+     * the parallel mode.
+     * @throws IllegalArgumentException If {@code parallelThreshold < 0}.
+     */
+    public void setParallelThreshold(final int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Argument parallelThreshold " +
+                    "must be >= 0.");
+        }//end if
+
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Gets the number of reference items, above which a single query is
+     * answered in parallel.
+     * @return The number of reference items, above which a single query is
+     * answered in parallel.
+     */
+    public int getParallelThreshold() {
+        return this.parallelThreshold;
+    }
+
+    /**
+     * Sets the {@link Selection} strategy that the furthest items are selected
+     * with. {@link Selection#AUTO} chooses it by the ratio of k to the number
+     * of reference items, on every query.
+     * @param selection The {@link Selection} strategy.
+     */
+    public void setSelection(@NotNull Selection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * Gets the {@link Selection} strategy that the furthest items are selected
+     * with.
+     * @return The {@link Selection} strategy.
+     */
+    public @NotNull Selection getSelection() {
+        return this.selection;
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * StoreBruteForce} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    @Override
+    public long version() {
+        return this.version;
+    }
+
+    private void setItems(@NotNull Collection<T> universe) {
+        this.items = new ArrayList<>(universe);
+        this.store = VectorStore.of(this.items, this.toVector,
+                this.precision);
+        ++this.version;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Store Brute Force - precision: %s",
+                this.precision);
+    }
+
+}//end class StoreBruteForce
\ No newline at end of file
@@ -0,0 +1,476 @@
+package algorithms;
+
+import org.jetbrains.annotations.NotNull;
+import util.BoundHeap;
+import util.ExecutionContext;
+import util.TopK;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
+
+/**
+ * An exact algorithm, that solves the k-furthest items problem with a
+ * vantage-point tree, on any metric. Every node of the tree covers a
+ * contiguous range of the reference items. Its 1st item is its vantage point
+ * vp, and the rest are split at their median distance from vp into an inner
+ * and an outer child, that keep the smallest and the largest distance of
+ * their items from vp. By the triangle inequality, no item of a child is
+ * further than d(q, vp) + maxRadius from a query q, so the nodes are visited
+ * best-first, in descending order of that bound, and the search stops as soon
+ * as it falls below the k-th furthest distance found so far. The smallest
+ * distances bound the children from below too, so a child of at least k items
+ * raises the floor that the other ones are pruned against.
+ * @param <T> The type of the items.
+ */
+public class VPTree<T> extends EvaluationStats implements FurthestItems<T> {
+
+    /**
+     * The maximum number of items of a leaf, by default.
+     */
+    private static final int DEFAULT_LEAF_SIZE = 8;
+
+    /**
+     * The minimum number of items of a node, for its children to be built in
+     * parallel.
+     */
+    private static final int PARALLEL_SIZE = 1 << 10;
+
+    /**
+     * A {@link List} with the reference items, in the order of the tree. The
+     * id of every item is its index in this {@link List}, and every node is
+     * addressed by the id of its 1st item.
+     */
+    private final @NotNull List<T> items;
+
+    /**
+     * A {@link ToDoubleBiFunction} with the properties of a metric, to compute
+     * the distance between 2 items.
+     */
+    private final @NotNull ToDoubleBiFunction<T, T> distFunction;
+
+    /**
+     * The last id of every node, exclusive.
+     */
+    private final @NotNull int[] nodeTo;
+
+    /**
+     * The smallest distance of the items of the inner child of every node from
+     * its vantage point.
+     */
+    private final @NotNull double[] innerMin;
+
+    /**
+     * The largest distance of the items of the inner child of every node from
+     * its vantage point.
+     */
+    private final @NotNull double[] innerMax;
+
+    /**
+     * The smallest distance of the items of the outer child of every node from
+     * its vantage point.
+     */
+    private final @NotNull double[] outerMin;
+
+    /**
+     * The largest distance of the items of the outer child of every node from
+     * its vantage point.
+     */
+    private final @NotNull double[] outerMax;
+
+    /**
+     * The maximum number of items of a leaf.
+     */
+    private final int leafSize;
+
+    /**
+     * The {@link ExecutionContext} that the parallel work of this {@link
+     * VPTree} runs on.
+     */
+    private @NotNull ExecutionContext context;
+
+    /**
+     * Creates a {@link VPTree}, ready to accept queries. A leaf holds at most
+     * 8 items.
+     * @param universe A {@link Collection} with the reference items.
+     * @param distFunction A {@link ToDoubleBiFunction} with the properties of
+     * a metric, to compute the distance between 2 items.
+     * @throws IllegalArgumentException If universe has no items.
+     */
+    public VPTree(@NotNull Collection<T> universe, @NotNull
+            ToDoubleBiFunction<T, T> distFunction) {
+        this(universe, distFunction, DEFAULT_LEAF_SIZE,
+                ExecutionContext.common());
+    }
+
+    /**
+     * Creates a {@link VPTree}, ready to accept queries. The tree is built on
+     * the given {@link ExecutionContext}, which the queries then run on too,
+     * unless {@link #setExecutionContext(ExecutionContext)} is called.
+     * @param universe A {@link Collection} with the reference items.
+     * @param distFunction A {@link ToDoubleBiFunction} with the properties of
+     * a metric, to compute the distance between 2 items.
+     * @param leafSize The maximum number of items of a leaf.
+     * @param context The {@link ExecutionContext} to run the parallel work on.
+     * @throws IllegalArgumentException If universe has no items.
+     * @throws IllegalArgumentException If {@code leafSize < 1}.
+     */
+    public VPTree(@NotNull Collection<T> universe, @NotNull
+            ToDoubleBiFunction<T, T> distFunction, final int leafSize,
+            @NotNull ExecutionContext context) {
+        super(universe.size());
+        if (universe.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection universe " +
+                    "can't be empty.");
+        }//end if
+
+        if (leafSize < 1) {
+            throw new IllegalArgumentException("Argument leafSize must be >= " +
+                    "1.");
+        }//end if
+
+        final List<T> UNSORTED = new ArrayList<>(universe);
+        final int SIZE = UNSORTED.size();
+        final int[] ORDER = IntStream.range(0, SIZE).toArray();
+        this.distFunction = distFunction;
+        this.leafSize = leafSize;
+        this.context = context;
+        this.nodeTo = new int[SIZE];
+        this.innerMin = new double[SIZE];
+        this.innerMax = new double[SIZE];
+        this.outerMin = new double[SIZE];
+        this.outerMax = new double[SIZE];
+        context.pool().invoke(new Split(UNSORTED, ORDER, new double[SIZE], 0,
+                SIZE));
+
+        final List<T> ITEMS = new ArrayList<>(SIZE);
+        for (int id : ORDER) {
+            ITEMS.add(UNSORTED.get(id));
+        }//end for
+        this.items = ITEMS;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item. Given an item,
+     * the query and an integer k, computes a subset {@link Collection} of the
+     * universe, such that every item in that {@link Collection} is inside the
+     * k-furthest, from the query item.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link Collection} with all the k-furthest items, from the
+     * query item.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull Collection<T> find(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        TopK topK = this.select(query, k);
+        List<T> result = new ArrayList<>(topK.size());
+        for (int i = 0; i < topK.size(); ++i) {
+            result.add(this.items.get(topK.id(i)));
+        }//end for
+
+        return result;
+    }
+
+    /**
+     * Solves the k-furthest problem with a single query item, keeping the
+     * distances that are computed along the way.
+     * @param query The query item.
+     * @param k The number of furthest items to find.
+     * @return A {@link ScoredItems} with the k-furthest items, from the query
+     * item, in descending order of their distances.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull ScoredItems<T> findScored(@NotNull T query, final int k) {
+        this.checkK(k);
+
+        return ScoredItems.of(this.select(query, k), this.items, false);
+    }
+
+    /**
+     * Solves the k-furthest items problem, for a batch of query items. The
+     * query items are processed in parallel.
+     * @param queries A {@link List} with the query items.
+     * @param k The number of furthest items to compute.
+     * @return A {@link BatchResult} with the k-furthest items of every query
+     * item, in descending order of their distances from it.
+     * @throws IllegalArgumentException If {@code queries.isEmpty()}.
+     * @throws IllegalArgumentException If {@code k < 1 || k > universe.size()}.
+     */
+    @Override
+    public @NotNull BatchResult<T> findBatch(@NotNull List<T> queries, final
+            int k) {
+        if (queries.isEmpty()) {
+            throw new IllegalArgumentException("Argument List queries can't " +
+                    "be empty.");
+        }//end if
+
+        this.checkK(k);
+
+        final List<T> QUERIES = new ArrayList<>(queries);
+        final int[] IDS = new int[QUERIES.size() * k];
+        final double[] DISTANCES = new double[IDS.length];
+        this.context.run(() -> IntStream.range(0, QUERIES.size())
+                                        .parallel()
+                                        .forEach(q -> BatchResult.fill(
+                                                this.select(QUERIES.get(q), k),
+                                                q * k, k, IDS, DISTANCES)));
+
+        return new BatchResult<>(QUERIES, this.items, k, IDS, DISTANCES);
+    }
+
+    /**
+     * Selects the k-furthest ids from a query item, with their distances. The
+     * nodes wait in a {@link BoundHeap} by their bounds, so that a query only
+     * allocates for the nodes that it reaches. The leaves are
+     * scanned as they are polled, while the inner nodes evaluate their
+     * vantage points and add their children, until the bound of the next
+     * node can't beat the k-th furthest distance, or the floor that the
+     * children of at least k items guarantee.
+     */
+    private @NotNull TopK select(@NotNull T query, final int k) {
+        BoundHeap heap = new BoundHeap();
+        //Not TopK.local, as the metric is user code
+        TopK topK = new TopK(k);
+        double floor = Double.NEGATIVE_INFINITY;
+        int evaluations = 0;
+        heap.add(0, Double.POSITIVE_INFINITY);
+        while (!heap.isEmpty()) {
+            if (heap.peekBound() < Math.max(topK.threshold(), floor)) {
+                break;
+            }//end if
+
+            final int NODE = heap.poll();
+
+            final int TO = this.nodeTo[NODE];
+            if (TO - NODE <= this.leafSize) {
+                for (int id = NODE; id < TO; ++id) {
+                    topK.offer(id, this.distance(id, query));
+                }//end for
+                evaluations += TO - NODE;
+                continue;
+            }//end if
+
+            final double DISTANCE = this.distance(NODE, query);
+            topK.offer(NODE, DISTANCE);
+            ++evaluations;
+
+            final int MIDDLE = VPTree.middle(NODE, TO);
+            final double INNER = Bounds.raise(DISTANCE +
+                    this.innerMax[NODE]);
+            final double OUTER = Bounds.raise(DISTANCE +
+                    this.outerMax[NODE]);
+            if (MIDDLE - NODE - 1 >= k) {
+                floor = Math.max(floor, this.lowerBound(DISTANCE,
+                        this.innerMin[NODE], this.innerMax[NODE]));
+            }//end if
+            if (TO - MIDDLE >= k) {
+                floor = Math.max(floor, this.lowerBound(DISTANCE,
+                        this.outerMin[NODE], this.outerMax[NODE]));
+            }//end if
+
+            final double THRESHOLD = Math.max(topK.threshold(), floor);
+            if (MIDDLE > NODE + 1 && INNER >= THRESHOLD) {
+                heap.add(NODE + 1, INNER);
+            }//end if
+            if (TO > MIDDLE && OUTER >= THRESHOLD) {
+                heap.add(MIDDLE, OUTER);
+            }//end if
+        }//end while
+
+        this.record(evaluations);
+        return topK;
+    }
+
+    /**
+     * Computes the smallest distance that an item of a child can be at from
+     * a query, given the distance of the query from the vantage point and the
+     * shell of the child around it, lowered by the slack.
+     */
+    private double lowerBound(final double distance, final double minRadius,
+            final double maxRadius) {
+        return Bounds.lower(Math.max(minRadius - distance, distance -
+                maxRadius));
+    }
+
+    private double distance(final int id, @NotNull T query) {
+        return this.distFunction.applyAsDouble(this.items.get(id), query);
+    }
+
+    /**
+     * Computes the 1st id of the outer child of a node with ids in [from, to),
+     * so that the inner child gets the smaller half of the ids after the
+     * vantage point.
+     */
+    private static int middle(final int from, final int to) {
+        return from + 1 + (to - from - 1) / 2;
+    }
+
+    /**
+     * Gets the maximum number of items of a leaf.
+     * @return The maximum number of items of a leaf.
+     */
+    public int getLeafSize() {
+        return this.leafSize;
+    }
+
+    /**
+     * Sets the {@link ExecutionContext} that the parallel work of this {@link
+     * VPTree} runs on.
+     * @param context The {@link ExecutionContext} to run the parallel work
+     * on.
+     */
+    public void setExecutionContext(@NotNull ExecutionContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public @NotNull ExecutionContext getExecutionContext() {
+        return this.context;
+    }
+
+    private void checkK(final int k) {
+        if (k < 1 || k > this.items.size()) {
+            throw new IllegalArgumentException("Argument k must be in range " +
+                    "[1, universe.size()].");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VP-Tree - leaf size: %d", this.leafSize);
+    }
+
+    /**
+     * Builds the node with ids in [from, to). Unless it is a leaf, a random
+     * item becomes its vantage point, the rest are reordered by quickselect
+     * on their distances from it, the shells of the children are recorded,
+     * and the children are built in parallel.
+     */
+    private class Split extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final @NotNull List<T> universe;
+        private final @NotNull int[] order;
+        private final @NotNull double[] distances;
+        private final int from;
+        private final int to;
+
+        Split(@NotNull List<T> universe, @NotNull int[] order, @NotNull double[]
+                distances, final int from, final int to) {
+            this.universe = universe;
+            this.order = order;
+            this.distances = distances;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            VPTree.this.nodeTo[this.from] = this.to;
+            if (this.to - this.from <= VPTree.this.leafSize) {
+                return;
+            }//end if
+
+            this.swap(this.from, ThreadLocalRandom.current().nextInt(this.from,
+                    this.to));
+            final T VANTAGE_POINT = this.universe.get(this.order[this.from]);
+            for (int i = this.from + 1; i < this.to; ++i) {
+                this.distances[i] = VPTree.this.distFunction.applyAsDouble(
+                        this.universe.get(this.order[i]), VANTAGE_POINT);
+            }//end for
+
+            final int MIDDLE = VPTree.middle(this.from, this.to);
+            this.partition(MIDDLE);
+            VPTree.this.innerMin[this.from] = this.min(this.from + 1, MIDDLE);
+            VPTree.this.innerMax[this.from] = this.max(this.from + 1, MIDDLE);
+            VPTree.this.outerMin[this.from] = this.min(MIDDLE, this.to);
+            VPTree.this.outerMax[this.from] = this.max(MIDDLE, this.to);
+
+            List<Split> children = new ArrayList<>(2);
+            if (MIDDLE > this.from + 1) {
+                children.add(new Split(this.universe, this.order,
+                        this.distances, this.from + 1, MIDDLE));
+            }//end if
+            children.add(new Split(this.universe, this.order, this.distances,
+                    MIDDLE, this.to));
+            if (this.to - this.from < PARALLEL_SIZE) {
+                for (Split child : children) {
+                    child.compute();
+                }//end for
+            } else {
+                RecursiveAction.invokeAll(children);
+            }//end if
+        }
+
+        private double min(final int from, final int to) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = from; i < to; ++i) {
+                min = Math.min(min, this.distances[i]);
+            }//end for
+
+            return min;
+        }
+
+        private double max(final int from, final int to) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; ++i) {
+                max = Math.max(max, this.distances[i]);
+            }//end for
+
+            return max;
+        }
+
+        /**
+         * Reorders the ids after the vantage point with quickselect, so that
+         * the one at the given position has its sorted position by distance.
+         */
+        private void partition(final int nth) {
+            int low = this.from + 1;
+            int high = this.to - 1;
+            while (low < high) {
+                final double PIVOT = this.distances[(low + high) >>> 1];
+                int i = low;
+                int j = high;
+                while (i <= j) {
+                    while (this.distances[i] < PIVOT) {
+                        ++i;
+                    }//end while
+                    while (this.distances[j] > PIVOT) {
+                        --j;
+                    }//end while
+                    if (i <= j) {
+                        this.swap(i++, j--);
+                    }//end if
+                }//end while
+                if (nth <= j) {
+                    high = j;
+                } else if (nth >= i) {
+                    low = i;
+                } else {
+                    break;
+                }//end if
+            }//end while
+        }
+
+        /**
+         * Swaps 2 positions of the order, along with their distances.
+         */
+        private void swap(final int i, final int j) {
+            final int ID = this.order[i];
+            this.order[i] = this.order[j];
+            this.order[j] = ID;
+            final double DISTANCE = this.distances[i];
+            this.distances[i] = this.distances[j];
+            this.distances[j] = DISTANCE;
+        }
+
+    }//end inner class Split
+
+}//end class VPTree
\ No newline at end of file
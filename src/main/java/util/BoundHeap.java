@@ -0,0 +1,147 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A max-heap of (node, bound) pairs, for the best-first searches of the trees.
+ * Unlike an {@link IndexHeap}, it does not need an array of scores for all
+ * the nodes, but grows with the nodes that are added, so that a query that
+ * visits a few nodes of a large tree allocates a few slots only. The nodes of
+ * NaN bounds come out last.
+ */
+public class BoundHeap {
+
+    /**
+     * The number of slots of a new {@link BoundHeap}.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The nodes that are not polled yet, in heap order.
+     */
+    private @NotNull int[] nodes = new int[INITIAL_CAPACITY];
+
+    /**
+     * The bounds of the nodes, in the same order.
+     */
+    private @NotNull double[] bounds = new double[INITIAL_CAPACITY];
+
+    /**
+     * The number of nodes that are not polled yet.
+     */
+    private int size;
+
+    /**
+     * Adds a node with its bound.
+     * @param node The node to add.
+     * @param bound The bound of the node.
+     */
+    public void add(final int node, final double bound) {
+        if (this.size == this.nodes.length) {
+            this.nodes = Arrays.copyOf(this.nodes, 2 * this.size);
+            this.bounds = Arrays.copyOf(this.bounds, 2 * this.size);
+        }//end if
+
+        int slot = this.size++;
+        while (slot > 0) {
+            final int PARENT = (slot - 1) / 2;
+            if (!BoundHeap.above(bound, this.bounds[PARENT])) {
+                break;
+            }//end if
+            this.nodes[slot] = this.nodes[PARENT];
+            this.bounds[slot] = this.bounds[PARENT];
+            slot = PARENT;
+        }//end while
+
+        this.nodes[slot] = node;
+        this.bounds[slot] = bound;
+    }
+
+    /**
+     * Checks if all the nodes are polled.
+     * @return True if all the nodes are polled, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the number of nodes that are not polled yet.
+     * @return The number of nodes that are not polled yet.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the largest bound, without removing its node.
+     * @return The largest bound, among the nodes that are not polled yet.
+     * @throws NoSuchElementException If all the nodes are polled.
+     */
+    public double peekBound() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("BoundHeap is empty.");
+        }//end if
+
+        return this.bounds[0];
+    }
+
+    /**
+     * Removes the node with the largest bound.
+     * @return The node with the largest bound, among the ones that are not
+     * polled yet.
+     * @throws NoSuchElementException If all the nodes are polled.
+     */
+    public int poll() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("BoundHeap is empty.");
+        }//end if
+
+        final int ROOT = this.nodes[0];
+        final int LAST = --this.size;
+        if (LAST > 0) {
+            this.siftDown(this.nodes[LAST], this.bounds[LAST]);
+        }//end if
+
+        return ROOT;
+    }
+
+    /**
+     * Moves a node down from the root of the heap, until its children do not
+     * bound above it.
+     */
+    private void siftDown(final int node, final double bound) {
+        int slot = 0;
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= this.size) {
+                break;
+            }//end if
+            if (child + 1 < this.size && BoundHeap.above(this.bounds[child +
+                    1], this.bounds[child])) {
+                ++child;
+            }//end if
+            if (!BoundHeap.above(this.bounds[child], bound)) {
+                break;
+            }//end if
+            this.nodes[slot] = this.nodes[child];
+            this.bounds[slot] = this.bounds[child];
+            slot = child;
+        }//end while
+
+        this.nodes[slot] = node;
+        this.bounds[slot] = bound;
+    }
+
+    /**
+     * Checks if a bound is above another one, with NaN below every bound.
+     */
+    private static boolean above(final double bound1, final double bound2) {
+        return bound1 > bound2 || (Double.isNaN(bound2) &&
+                !Double.isNaN(bound1));
+    }
+
+}//end class BoundHeap
\ No newline at end of file
@@ -0,0 +1,73 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time, after which a query should stop and return what it has
+ * found so far. It is measured on {@link System#nanoTime()}, so it is not
+ * affected by changes of the wall clock. Algorithms check it cooperatively,
+ * every few distance computations.
+ */
+public final class Deadline {
+
+    /**
+     * The {@link System#nanoTime()} at the creation of this {@link Deadline}.
+     */
+    private final long start;
+
+    /**
+     * The time budget, in nanoseconds.
+     */
+    private final long budget;
+
+    private Deadline(final long start, final long budget) {
+        this.start = start;
+        this.budget = budget;
+    }
+
+    /**
+     * Creates a {@link Deadline} after the given time budget, from now.
+     * @param timeout The time budget.
+     * @param unit The {@link TimeUnit} of timeout.
+     * @return A {@link Deadline} after the given time budget.
+     * @throws IllegalArgumentException If {@code timeout < 0}.
+     */
+    public static @NotNull Deadline after(final long timeout, @NotNull
+            TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Argument timeout must be >= " +
+                    "0.");
+        }//end if
+
+        return new Deadline(System.nanoTime(), unit.toNanos(timeout));
+    }
+
+    /**
+     * Checks if this {@link Deadline} has passed.
+     * @return True if the time budget has run out, otherwise false.
+     */
+    public boolean isExpired() {
+        //The difference is immune to the overflow of System.nanoTime()
+        return System.nanoTime() - this.start >= this.budget;
+    }
+
+    /**
+     * Gets the time budget that is left.
+     * @param unit The {@link TimeUnit} of the result.
+     * @return The time budget that is left, in the given {@link TimeUnit}, or
+     * 0 if this {@link Deadline} has passed.
+     */
+    public long remaining(@NotNull TimeUnit unit) {
+        return unit.convert(Math.max(0, this.budget - (System.nanoTime() -
+                this.start)), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Deadline - remaining: %d ns",
+                this.remaining(TimeUnit.NANOSECONDS));
+    }
+
+}//end class Deadline
\ No newline at end of file
@@ -0,0 +1,143 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+
+/**
+ * The {@link ForkJoinPool} that the parallel work of an algorithm runs on.
+ * Parallel streams and fork/join tasks that are started by a thread of a
+ * {@link ForkJoinPool} run on that {@link ForkJoinPool}, so submitting the
+ * work to the pool of an {@link ExecutionContext} keeps it off the common
+ * {@link ForkJoinPool}. Separate {@link ExecutionContext}s can thus isolate
+ * and size the index builds and the queries of the same JVM.
+ */
+public final class ExecutionContext {
+
+    /**
+     * The {@link ExecutionContext} of the common {@link ForkJoinPool}.
+     */
+    private static final ExecutionContext COMMON = new ExecutionContext(
+            ForkJoinPool.commonPool());
+
+    /**
+     * The {@link ForkJoinPool} that the work runs on.
+     */
+    private final @NotNull ForkJoinPool pool;
+
+    private ExecutionContext(@NotNull ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the {@link ExecutionContext} of the common {@link ForkJoinPool}.
+     * @return The {@link ExecutionContext} of the common {@link
+     * ForkJoinPool}.
+     */
+    public static @NotNull ExecutionContext common() {
+        return COMMON;
+    }
+
+    /**
+     * Creates an {@link ExecutionContext} that runs the work on the given
+     * {@link ForkJoinPool}. The {@link ForkJoinPool} is not shut down by it.
+     * @param pool The {@link ForkJoinPool} to run the work on.
+     * @return An {@link ExecutionContext} of the given {@link ForkJoinPool}.
+     */
+    public static @NotNull ExecutionContext of(@NotNull ForkJoinPool pool) {
+        return (pool == ForkJoinPool.commonPool()) ? COMMON :
+                new ExecutionContext(pool);
+    }
+
+    /**
+     * Creates an {@link ExecutionContext} on a new {@link ForkJoinPool}, with
+     * the given parallelism.
+     * @param parallelism The parallelism of the new {@link ForkJoinPool}.
+     * @return An {@link ExecutionContext} of a new {@link ForkJoinPool}.
+     * @throws IllegalArgumentException If {@code parallelism < 1}.
+     */
+    public static @NotNull ExecutionContext ofParallelism(final int
+            parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Argument parallelism must be " +
+                    ">= 1.");
+        }//end if
+
+        return new ExecutionContext(new ForkJoinPool(parallelism));
+    }
+
+    /**
+     * Gets the {@link ForkJoinPool} that the work runs on.
+     * @return The {@link ForkJoinPool} that the work runs on.
+     */
+    public @NotNull ForkJoinPool pool() {
+        return this.pool;
+    }
+
+    /**
+     * Gets the parallelism of the {@link ForkJoinPool} that the work runs on.
+     * @return The parallelism of the {@link ForkJoinPool}.
+     */
+    public int parallelism() {
+        return this.pool.getParallelism();
+    }
+
+    /**
+     * Checks if the current thread belongs to the {@link ForkJoinPool} of this
+     * {@link ExecutionContext}.
+     * @return True if the current thread belongs to the {@link ForkJoinPool},
+     * otherwise false.
+     */
+    public boolean isCurrent() {
+        final Thread CURRENT = Thread.currentThread();
+        if (CURRENT instanceof ForkJoinWorkerThread) {
+            return ((ForkJoinWorkerThread) CURRENT).getPool() == this.pool;
+        }//end if
+
+        //Parallel streams that are started outside of any ForkJoinPool run on
+        //the common one
+        return this.pool == ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Computes a result on the {@link ForkJoinPool} of this {@link
+     * ExecutionContext} and waits for it. If the current thread already
+     * belongs to it, the result is computed directly.
+     * @param work A {@link Supplier} that computes the result, typically with
+     * a parallel stream.
+     * @param <R> The type of the result.
+     * @return The result.
+     */
+    public <R> R invoke(@NotNull Supplier<R> work) {
+        if (this.isCurrent()) {
+            return work.get();
+        }//end if
+
+        return this.pool.submit(work::get).join();
+    }
+
+    /**
+     * Runs some work on the {@link ForkJoinPool} of this {@link
+     * ExecutionContext} and waits for it. If the current thread already
+     * belongs to it, the work runs directly.
+     * @param work A {@link Runnable} with the work, typically a parallel
+     * stream.
+     */
+    public void run(@NotNull Runnable work) {
+        if (this.isCurrent()) {
+            work.run();
+            return;
+        }//end if
+
+        this.pool.submit(work).join();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExecutionContext - parallelism: %d",
+                this.parallelism());
+    }
+
+}//end class ExecutionContext
\ No newline at end of file
@@ -0,0 +1,164 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Represents a mathematical vector, like {@link Vector}, whose coordinates are
+ * stored in single precision. It takes half the memory of a {@link Vector},
+ * while all the calculations on it are accumulated in double precision.
+ */
+public class FloatVector {
+
+    /**
+     * The coordinates of the end point of this FloatVector.
+     */
+    private @NotNull float[] coordinates;
+
+    /**
+     * Calculates the dot product of 2 given FloatVector's'.
+     * @param v1 The 1st FloatVector of the dot product.
+     * @param v2 The 2nd FloatVector of the dot product.
+     * @return The dot product of the 2 given FloatVector's'.
+     * @throws IllegalArgumentException If the 2 given FloatVector's' do not
+     * have the same size.
+     */
+    public static double dotProduct(@NotNull FloatVector v1, @NotNull
+            FloatVector v2) {
+        FloatVector.checkSameSize(v1, v2);
+        return Kernels.dotProduct(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between 2 given FloatVector's',
+     * i.e. the square distance between their end points.
+     * @param v1 The 1st FloatVector.
+     * @param v2 The 2nd FloatVector.
+     * @return The squared Euclidean distance between the 2 given
+     * FloatVector's'.
+     * @throws IllegalArgumentException If the 2 given FloatVector's' do not
+     * have the same size.
+     */
+    public static double sqrDistance(@NotNull FloatVector v1, @NotNull
+            FloatVector v2) {
+        FloatVector.checkSameSize(v1, v2);
+        return Kernels.sqrDistance(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
+    }
+
+    /**
+     * Calculates the Euclidean distance between 2 given FloatVector's', i.e.
+     * the distance between their end points.
+     * @param v1 The 1st FloatVector.
+     * @param v2 The 2nd FloatVector.
+     * @return The Euclidean distance between the 2 given FloatVector's'.
+     * @throws IllegalArgumentException If the 2 given FloatVector's' do not
+     * have the same size.
+     */
+    public static double distance(@NotNull FloatVector v1, @NotNull
+            FloatVector v2) {
+        return Math.sqrt(FloatVector.sqrDistance(v1, v2));
+    }
+
+    private static void checkSameSize(@NotNull FloatVector v1, @NotNull
+            FloatVector v2) {
+        if (v1.size() != v2.size()) {
+            throw new IllegalArgumentException("The given FloatVector's' " +
+                    "must have the same size.");
+        }//end if
+    }
+
+    /**
+     * Creates a FloatVector, given the coordinates of its end point.
+     * @param coordinates An array with the coordinates of the end point of this
+     * FloatVector.
+     * @throws IllegalArgumentException If the length of the coordinates array
+     * is {@literal <} 1.
+     */
+    public FloatVector(@NotNull float... coordinates) {
+        if (coordinates.length < 1) {
+            throw new IllegalArgumentException("Argument size can't be < 1.");
+        }//end if
+
+        this.coordinates = coordinates;
+    }
+
+    /**
+     * Creates a FloatVector with the coordinates of the given {@link Vector},
+     * rounded to single precision.
+     * @param vector A {@link Vector} to copy.
+     */
+    public FloatVector(@NotNull Vector vector) {
+        this.coordinates = new float[vector.size()];
+        for (int i = 0; i < this.coordinates.length; ++i) {
+            this.coordinates[i] = (float) vector.coordinates()[i];
+        }//end for
+    }
+
+    /**
+     * Gets the value of the i-coordinate of the end point of this FloatVector.
+     * @param i The i-coordinate of the end point of this FloatVector, starting
+     * from 0.
+     * @return The value of the i-coordinate of the end point of this
+     * FloatVector.
+     * @throws IndexOutOfBoundsException If i is {@literal <} 0 or i is
+     * {@literal >=} to the number of dimensions of the Euclidean space this
+     * FloatVector lies in.
+     */
+    public float get(int i) {
+        Objects.checkIndex(i, this.coordinates.length);
+        return this.coordinates[i];
+    }
+
+    /**
+     * Sets the value of the i-coordinate of the end point of this FloatVector.
+     * @param i The i-coordinate of the end point of this FloatVector, starting
+     * from 0.
+     * @param value The new value of the i-coordinate of the end point of this
+     * FloatVector.
+     * @throws IndexOutOfBoundsException If i is {@literal <} 0 or i is
+     * {@literal >=} to the number of dimensions of the Euclidean space this
+     * FloatVector lies in.
+     */
+    public void set(int i, float value) {
+        Objects.checkIndex(i, this.coordinates.length);
+        this.coordinates[i] = value;
+    }
+
+    /**
+     * Gets the number of dimensions of the Euclidean space this FloatVector
+     * lies in.
+     * @return The number of dimensions of the Euclidean space this FloatVector
+     * lies in.
+     */
+    public int size() {
+        return this.coordinates.length;
+    }
+
+    /**
+     * Creates a {@link Vector} with the coordinates of this FloatVector.
+     * @return A new {@link Vector} with the coordinates of this FloatVector.
+     */
+    public @NotNull Vector toVector() {
+        return new Vector(this.size(), i -> this.coordinates[i]);
+    }
+
+    /**
+     * Gets the array that backs the coordinates of this FloatVector, without
+     * copying it. Changes to the returned array are reflected to this
+     * FloatVector.
+     * @return The array that backs the coordinates of this FloatVector.
+     */
+    @NotNull float[] coordinates() {
+        return this.coordinates;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(this.coordinates);
+    }
+
+}//end class FloatVector
\ No newline at end of file
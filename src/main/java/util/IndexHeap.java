@@ -0,0 +1,176 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A max-heap of the ids [0, n), ordered by the scores of an array. It is built
+ * in linear time from all the scores at once, and hands out the ids in
+ * descending order of their scores, one at a time, so that only the ids that
+ * are polled pay the logarithmic cost. It can also start empty and take the
+ * ids one at a time, e.g. when their scores are computed lazily. The ids of
+ * NaN scores come out last.
+ */
+public class IndexHeap {
+
+    /**
+     * The scores of the ids. The array is not copied.
+     */
+    private final @NotNull double[] scores;
+
+    /**
+     * The ids that are not polled yet, in heap order.
+     */
+    private final @NotNull int[] heap;
+
+    /**
+     * The number of ids that are not polled yet.
+     */
+    private int size;
+
+    /**
+     * Creates an {@link IndexHeap} with all the ids of an array of scores.
+     * @param scores The scores of the ids. The array is not copied, so it must
+     * not be modified while the {@link IndexHeap} is in use.
+     */
+    public IndexHeap(@NotNull double[] scores) {
+        this.scores = scores;
+        this.heap = new int[scores.length];
+        this.size = scores.length;
+        for (int i = 0; i < this.heap.length; ++i) {
+            this.heap[i] = i;
+        }//end for
+
+        for (int i = this.size / 2 - 1; i >= 0; --i) {
+            this.siftDown(i, this.heap[i]);
+        }//end for
+    }
+
+    private IndexHeap(@NotNull double[] scores, final int size) {
+        this.scores = scores;
+        this.heap = new int[scores.length];
+        this.size = size;
+    }
+
+    /**
+     * Creates an empty {@link IndexHeap}, that takes the ids of an array of
+     * scores by {@link #add(int)}.
+     * @param scores The scores of the ids. The array is not copied, so the
+     * score of an id must be set before the id is added, and not be modified
+     * while the id is in the {@link IndexHeap}.
+     * @return An empty {@link IndexHeap}.
+     */
+    public static @NotNull IndexHeap empty(@NotNull double[] scores) {
+        return new IndexHeap(scores, 0);
+    }
+
+    /**
+     * Adds an id, that is not in this {@link IndexHeap}.
+     * @param id The id to add.
+     * @throws IllegalArgumentException If {@code id < 0 || id >=
+     * scores.length}.
+     * @throws IllegalStateException If all the scores.length slots are taken.
+     */
+    public void add(final int id) {
+        if (id < 0 || id >= this.scores.length) {
+            throw new IllegalArgumentException("Argument id must be in range " +
+                    "[0, scores.length).");
+        }//end if
+
+        if (this.size == this.heap.length) {
+            throw new IllegalStateException("IndexHeap is full.");
+        }//end if
+
+        int slot = this.size++;
+        while (slot > 0) {
+            final int PARENT = (slot - 1) / 2;
+            if (!this.above(id, this.heap[PARENT])) {
+                break;
+            }//end if
+            this.heap[slot] = this.heap[PARENT];
+            slot = PARENT;
+        }//end while
+
+        this.heap[slot] = id;
+    }
+
+    /**
+     * Checks if all the ids are polled.
+     * @return True if all the ids are polled, otherwise false.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the number of ids that are not polled yet.
+     * @return The number of ids that are not polled yet.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Removes the id with the largest score.
+     * @return The id with the largest score, among the ones that are not
+     * polled yet.
+     * @throws NoSuchElementException If all the ids are polled.
+     */
+    public int poll() {
+        if (this.size == 0) {
+            throw new NoSuchElementException("IndexHeap is empty.");
+        }//end if
+
+        final int ROOT = this.heap[0];
+        final int LAST = this.heap[--this.size];
+        if (this.size > 0) {
+            this.siftDown(0, LAST);
+        }//end if
+
+        return ROOT;
+    }
+
+    /**
+     * Gets the score of an id.
+     * @param id The id.
+     * @return The score of the id.
+     */
+    public double score(final int id) {
+        return this.scores[id];
+    }
+
+    /**
+     * Moves an id down from a slot of the heap, until its children do not
+     * score above it.
+     */
+    private void siftDown(int slot, final int id) {
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= this.size) {
+                break;
+            }//end if
+            if (child + 1 < this.size && this.above(this.heap[child + 1],
+                    this.heap[child])) {
+                ++child;
+            }//end if
+            if (!this.above(this.heap[child], id)) {
+                break;
+            }//end if
+            this.heap[slot] = this.heap[child];
+            slot = child;
+        }//end while
+
+        this.heap[slot] = id;
+    }
+
+    /**
+     * Checks if an id scores above another one, with NaN below every score.
+     */
+    private boolean above(final int id1, final int id2) {
+        final double S1 = this.scores[id1];
+        final double S2 = this.scores[id2];
+        return S1 > S2 || (Double.isNaN(S2) && !Double.isNaN(S1));
+    }
+
+}//end class IndexHeap
\ No newline at end of file
@@ -0,0 +1,339 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The distance kernels that every engine ends up calling in its inner loop.
+ * They operate on slices of primitive arrays, so that they can run on the
+ * coordinates of a {@link Vector} as well as on the rows of a {@link
+ * VectorStore}. The implementation is chosen once, when this class is
+ * initialized: the SIMD one, that is based on the incubating Java Vector API,
+ * if the {@code jdk.incubator.vector} module is present, otherwise the scalar
+ * one. The system property {@value #PROPERTY} can be set to {@code scalar} or
+ * {@code simd}, to pin the implementation. Pinning {@code simd} without the
+ * module fails the initialization of this class.
+ */
+public final class Kernels {
+
+    /**
+     * The implementation of the kernels.
+     */
+    interface Provider {
+
+        double dotProduct(@NotNull double[] a, int aOffset, @NotNull double[]
+                b, int bOffset, int length);
+
+        double dotProduct(@NotNull float[] a, int aOffset, @NotNull float[] b,
+                int bOffset, int length);
+
+        double dotProduct(@NotNull float[] a, int aOffset, @NotNull double[] b,
+                int bOffset, int length);
+
+        double sqrDistance(@NotNull double[] a, int aOffset, @NotNull double[]
+                b, int bOffset, int length);
+
+        double sqrDistance(@NotNull float[] a, int aOffset, @NotNull float[] b,
+                int bOffset, int length);
+
+        double sqrDistance(@NotNull float[] a, int aOffset, @NotNull double[]
+                b, int bOffset, int length);
+
+        double distance1(@NotNull double[] a, int aOffset, @NotNull double[] b,
+                int bOffset, int length);
+
+        double distance1(@NotNull float[] a, int aOffset, @NotNull float[] b,
+                int bOffset, int length);
+
+        double distanceInf(@NotNull double[] a, int aOffset, @NotNull double[]
+                b, int bOffset, int length);
+
+        double distanceInf(@NotNull float[] a, int aOffset, @NotNull float[] b,
+                int bOffset, int length);
+
+        double norm1(@NotNull double[] a, int offset, int length);
+
+        double norm1(@NotNull float[] a, int offset, int length);
+
+        double normInf(@NotNull double[] a, int offset, int length);
+
+        double normInf(@NotNull float[] a, int offset, int length);
+
+    }//end inner interface Provider
+
+    /**
+     * The system property that pins the implementation of the kernels.
+     */
+    public static final String PROPERTY = "util.kernels";
+
+    /**
+     * The implementation of the kernels, chosen at startup.
+     */
+    private static final @NotNull Provider PROVIDER = Kernels.select();
+
+    private static @NotNull Provider select() {
+        final String PINNED = System.getProperty(PROPERTY);
+        if ("scalar".equalsIgnoreCase(PINNED)) {
+            return new ScalarKernels();
+        }//end if
+
+        final boolean PRESENT = ModuleLayer.boot()
+                                           .findModule("jdk.incubator.vector")
+                                           .isPresent();
+        if ("simd".equalsIgnoreCase(PINNED)) {
+            if (!PRESENT) {
+                throw new IllegalStateException("The system property " +
+                        PROPERTY + " pins the simd kernels, but the module " +
+                        "jdk.incubator.vector is not present.");
+            }//end if
+            return new SimdKernels();
+        }//end if
+
+        if (!PRESENT) {
+            return new ScalarKernels();
+        }//end if
+
+        try {
+            //A preferred species of a single lane means there is no SIMD
+            //support, so the scalar kernels are at least as fast
+            return SimdKernels.isSupported() ? new SimdKernels() :
+                    new ScalarKernels();
+        } catch (LinkageError e) {
+            return new ScalarKernels();
+        }//end try
+    }
+
+    private Kernels() {}
+
+    /**
+     * Gets the name of the implementation of the kernels chosen at startup.
+     * @return The name of the implementation of the kernels, i.e. {@code
+     * scalar} or {@code simd}.
+     */
+    public static @NotNull String implementation() {
+        return PROVIDER.toString();
+    }
+
+    /**
+     * Calculates the dot product of 2 slices of the same length.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The dot product of the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double dotProduct(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.dotProduct(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the dot product of 2 slices of the same length. The sum is
+     * accumulated in double precision.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The dot product of the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double dotProduct(@NotNull float[] a, int aOffset, @NotNull
+            float[] b, int bOffset, int length) {
+        return PROVIDER.dotProduct(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the dot product of a single precision and a double precision
+     * slice of the same length. The sum is accumulated in double precision.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The dot product of the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double dotProduct(@NotNull float[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.dotProduct(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between 2 slices of the same
+     * length.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The squared Euclidean distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double sqrDistance(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.sqrDistance(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between 2 slices of the same
+     * length. The sum is accumulated in double precision.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The squared Euclidean distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double sqrDistance(@NotNull float[] a, int aOffset, @NotNull
+            float[] b, int bOffset, int length) {
+        return PROVIDER.sqrDistance(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between a single precision and
+     * a double precision slice of the same length. The sum is accumulated in
+     * double precision.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The squared Euclidean distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double sqrDistance(@NotNull float[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.sqrDistance(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the 1-norm distance (Manhattan distance) between 2 slices of
+     * the same length.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The 1-norm distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double distance1(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.distance1(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the 1-norm distance (Manhattan distance) between 2 slices of
+     * the same length. The sum is accumulated in double precision.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The 1-norm distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double distance1(@NotNull float[] a, int aOffset, @NotNull
+            float[] b, int bOffset, int length) {
+        return PROVIDER.distance1(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the infinity-norm distance (Chebyshev distance) between 2
+     * slices of the same length.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The infinity-norm distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double distanceInf(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        return PROVIDER.distanceInf(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the infinity-norm distance (Chebyshev distance) between 2
+     * slices of the same length.
+     * @param a The array of the 1st slice.
+     * @param aOffset The index of the 1st element of the 1st slice.
+     * @param b The array of the 2nd slice.
+     * @param bOffset The index of the 1st element of the 2nd slice.
+     * @param length The length of the slices.
+     * @return The infinity-norm distance between the 2 slices.
+     * @throws IndexOutOfBoundsException If any of the slices is out of the
+     * bounds of its array.
+     */
+    public static double distanceInf(@NotNull float[] a, int aOffset, @NotNull
+            float[] b, int bOffset, int length) {
+        return PROVIDER.distanceInf(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * Calculates the 1-norm of a slice.
+     * @param a The array of the slice.
+     * @param offset The index of the 1st element of the slice.
+     * @param length The length of the slice.
+     * @return The 1-norm of the slice.
+     * @throws IndexOutOfBoundsException If the slice is out of the bounds of
+     * its array.
+     */
+    public static double norm1(@NotNull double[] a, int offset, int length) {
+        return PROVIDER.norm1(a, offset, length);
+    }
+
+    /**
+     * Calculates the 1-norm of a slice. The sum is accumulated in double
+     * precision.
+     * @param a The array of the slice.
+     * @param offset The index of the 1st element of the slice.
+     * @param length The length of the slice.
+     * @return The 1-norm of the slice.
+     * @throws IndexOutOfBoundsException If the slice is out of the bounds of
+     * its array.
+     */
+    public static double norm1(@NotNull float[] a, int offset, int length) {
+        return PROVIDER.norm1(a, offset, length);
+    }
+
+    /**
+     * Calculates the infinity-norm of a slice.
+     * @param a The array of the slice.
+     * @param offset The index of the 1st element of the slice.
+     * @param length The length of the slice.
+     * @return The infinity-norm of the slice.
+     * @throws IndexOutOfBoundsException If the slice is out of the bounds of
+     * its array.
+     */
+    public static double normInf(@NotNull double[] a, int offset, int length) {
+        return PROVIDER.normInf(a, offset, length);
+    }
+
+    /**
+     * Calculates the infinity-norm of a slice.
+     * @param a The array of the slice.
+     * @param offset The index of the 1st element of the slice.
+     * @param length The length of the slice.
+     * @return The infinity-norm of the slice.
+     * @throws IndexOutOfBoundsException If the slice is out of the bounds of
+     * its array.
+     */
+    public static double normInf(@NotNull float[] a, int offset, int length) {
+        return PROVIDER.normInf(a, offset, length);
+    }
+
+}//end class Kernels
\ No newline at end of file
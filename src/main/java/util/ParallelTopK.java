@@ -0,0 +1,187 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Selects the k (id, score) pairs with the largest scores among the ids of a
+ * range [0, size), on the {@link ForkJoinPool} of an {@link ExecutionContext}
+ * (the common one by default). The range is split in
+ * chunks, the pairs of every chunk are selected in a {@link TopK} of their own
+ * and the partial {@link TopK}s are merged, while the tasks are joined.
+ */
+public final class ParallelTopK {
+
+    /**
+     * Offers the pairs of a chunk of ids to a {@link TopK}.
+     */
+    @FunctionalInterface
+    public interface RangeSelection {
+
+        /**
+         * Offers the pairs of the ids in [from, to) to the given {@link TopK}.
+         * @param from The 1st id of the chunk, inclusive.
+         * @param to The last id of the chunk, exclusive.
+         * @param topK The {@link TopK} to offer the pairs to.
+         */
+        void select(int from, int to, @NotNull TopK topK);
+
+    }//end inner interface RangeSelection
+
+    /**
+     * The default number of ids, above which a selection is worth to run in
+     * parallel.
+     */
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    /**
+     * The minimum number of ids of a chunk, so that a task does enough work to
+     * pay for its forking.
+     */
+    private static final int MIN_CHUNK_LENGTH = 1 << 13;
+
+    /**
+     * The number of chunks per thread of the common {@link ForkJoinPool}, so
+     * that threads that finish early can steal the remaining ones.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    /**
+     * The number of queued tasks of a worker, above which its pool is busy
+     * enough, so that a selection called from it runs sequentially.
+     */
+    private static final int SURPLUS_TASKS = 3;
+
+    private ParallelTopK() {}
+
+    /**
+     * Checks if a selection over the given number of ids should run in
+     * parallel, on the common {@link ForkJoinPool}.
+     * @param size The number of ids.
+     * @param threshold The number of ids, above which the selection runs in
+     * parallel.
+     * @return True if the selection should run in parallel, otherwise false.
+     */
+    public static boolean isWorthIt(final int size, final int threshold) {
+        return isWorthIt(size, threshold, ExecutionContext.common());
+    }
+
+    /**
+     * Checks if a selection over the given number of ids should run in
+     * parallel, on the given {@link ExecutionContext}. A worker of its {@link
+     * ForkJoinPool}, e.g. one that runs an asynchronous query, nests the
+     * selection with fork/join, unless it has enough queued tasks already,
+     * e.g. when it runs a parallel batch. A worker of another {@link
+     * ForkJoinPool} runs it sequentially, so that it does not block on the
+     * pool of the {@link ExecutionContext}.
+     * @param size The number of ids.
+     * @param threshold The number of ids, above which the selection runs in
+     * parallel.
+     * @param context The {@link ExecutionContext} to run the selection on.
+     * @return True if the selection should run in parallel, otherwise false.
+     */
+    public static boolean isWorthIt(final int size, final int threshold,
+            @NotNull ExecutionContext context) {
+        if (size <= threshold || context.parallelism() < 2) {
+            return false;
+        }//end if
+
+        if (!ForkJoinTask.inForkJoinPool()) {
+            return true;
+        }//end if
+
+        return ForkJoinTask.getPool() == context.pool() &&
+                ForkJoinTask.getSurplusQueuedTaskCount() <= SURPLUS_TASKS;
+    }
+
+    /**
+     * Selects the k pairs with the largest scores among the ids in [0, size),
+     * in parallel.
+     * @param size The number of ids.
+     * @param k The maximum number of pairs to keep.
+     * @param selection A {@link RangeSelection} that offers the pairs of a
+     * chunk of ids. It is called concurrently, on disjoint chunks.
+     * @return A new {@link TopK} with the selected pairs, in heap order.
+     * @throws IllegalArgumentException If {@code size < 0}.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     */
+    public static @NotNull TopK select(final int size, final int k, @NotNull
+            RangeSelection selection) {
+        return select(size, k, ExecutionContext.common(), selection);
+    }
+
+    /**
+     * Selects the k pairs with the largest scores among the ids in [0, size),
+     * in parallel, on the given {@link ExecutionContext}.
+     * @param size The number of ids.
+     * @param k The maximum number of pairs to keep.
+     * @param context The {@link ExecutionContext} to run the selection on.
+     * @param selection A {@link RangeSelection} that offers the pairs of a
+     * chunk of ids. It is called concurrently, on disjoint chunks.
+     * @return A new {@link TopK} with the selected pairs, in heap order.
+     * @throws IllegalArgumentException If {@code size < 0}.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     */
+    public static @NotNull TopK select(final int size, final int k, @NotNull
+            ExecutionContext context, @NotNull RangeSelection selection) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Argument size must be >= 0.");
+        }//end if
+
+        if (k < 1) {
+            throw new IllegalArgumentException("Argument k must be >= 1.");
+        }//end if
+
+        final int CHUNK_LENGTH = Math.max(MIN_CHUNK_LENGTH, size /
+                (CHUNKS_PER_THREAD * context.parallelism()));
+        return context.pool()
+                      .invoke(new Task(0, size, k, CHUNK_LENGTH, selection));
+    }
+
+    /**
+     * Splits its range in halves, until it is at most a chunk long.
+     */
+    private static class Task extends RecursiveTask<TopK> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int k;
+        private final int chunkLength;
+        private final @NotNull RangeSelection selection;
+
+        Task(final int from, final int to, final int k, final int chunkLength,
+                @NotNull RangeSelection selection) {
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.chunkLength = chunkLength;
+            this.selection = selection;
+        }
+
+        @Override
+        protected @NotNull TopK compute() {
+            if (this.to - this.from <= this.chunkLength) {
+                TopK topK = new TopK(this.k);
+                this.selection.select(this.from, this.to, topK);
+                return topK;
+            }//end if
+
+            final int MIDDLE = (this.from + this.to) >>> 1;
+            Task left = new Task(this.from, MIDDLE, this.k, this.chunkLength,
+                    this.selection);
+            left.fork();
+            TopK right = new Task(MIDDLE, this.to, this.k, this.chunkLength,
+                    this.selection).compute();
+            TopK result = left.join();
+            result.merge(right);
+            return result;
+        }
+
+    }//end inner class Task
+
+}//end class ParallelTopK
\ No newline at end of file
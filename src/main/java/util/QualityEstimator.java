@@ -1,10 +1,13 @@
 package util;
 
+import algorithms.BatchResult;
+import algorithms.ScoredItems;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
 import java.util.Map;
 import java.util.function.ToDoubleBiFunction;
+import java.util.stream.IntStream;
 
 /**
  * Estimates the quality of solutions to the k-furthest items problem.
@@ -26,12 +29,31 @@ public interface QualityEstimator<T> {
         private @NotNull ToDoubleBiFunction<T, T> distFunction;
 
         /**
-         * Creates a {@link FlatSum}.
+         * The {@link ExecutionContext} that the estimations run on.
+         */
+        private @NotNull ExecutionContext context;
+
+        /**
+         * Creates a {@link FlatSum}, that runs on the common {@link
+         * ExecutionContext}.
          * @param distFunction A {@link ToDoubleBiFunction} to compute the
          * distance between 2 items.
          */
         public FlatSum(@NotNull ToDoubleBiFunction<T, T> distFunction) {
+            this(distFunction, ExecutionContext.common());
+        }
+
+        /**
+         * Creates a {@link FlatSum}.
+         * @param distFunction A {@link ToDoubleBiFunction} to compute the
+         * distance between 2 items.
+         * @param context The {@link ExecutionContext} that the estimations run
+         * on.
+         */
+        public FlatSum(@NotNull ToDoubleBiFunction<T, T> distFunction, @NotNull
+                ExecutionContext context) {
             this.distFunction = distFunction;
+            this.context = context;
         }
 
         /**
@@ -43,7 +65,7 @@ public interface QualityEstimator<T> {
         @Override
         public double estimate(@NotNull Map<T, ? extends Collection<T>>
                 solution) {
-            return solution.entrySet()
+            return this.context.invoke(() -> solution.entrySet()
                            .parallelStream()
                            .mapToDouble(e -> e.getValue()
                                               .parallelStream()
@@ -51,7 +73,51 @@ public interface QualityEstimator<T> {
                                                   distFunction.applyAsDouble(p,
                                                   e.getKey()))
                                               .sum())
-                           .sum();
+                           .sum());
+        }
+
+        /**
+         * Computes the quality of a given solution, whose distances are
+         * already computed. The distances are summed as they are, instead of
+         * being computed again with the distance function of this {@link
+         * FlatSum}.
+         * @param solution A solution to the k-furthest items problem, with a
+         * {@link ScoredItems} per query item.
+         * @return The quality of the solution. High values describe higher
+         * quality than low values.
+         */
+        public double estimateScored(@NotNull Collection<? extends
+                ScoredItems<T>> solution) {
+            return this.context.invoke(() -> solution.parallelStream()
+                                                     .mapToDouble(
+                                                             ScoredItems::sum)
+                                                     .sum());
+        }
+
+        /**
+         * Computes the quality of a given {@link BatchResult}. The distances
+         * are computed with the distance function of this {@link FlatSum}, as
+         * in {@link #estimate(Map)}, and not taken from the {@link
+         * BatchResult}, whose distances come from the metric of the engine
+         * that answered it.
+         * @param solution A solution to the k-furthest items problem.
+         * @return The quality of the solution. High values describe higher
+         * quality than low values.
+         */
+        public double estimate(@NotNull BatchResult<T> solution) {
+            return this.context.invoke(() -> IntStream.range(0,
+                    solution.queryCount())
+                            .parallel()
+                            .mapToDouble(q -> {
+                                final T QUERY = solution.query(q);
+                                double sum = 0.0;
+                                for (int i = 0; i < solution.count(q); ++i) {
+                                    sum += this.distFunction.applyAsDouble(
+                                            solution.item(q, i), QUERY);
+                                }//end for
+                                return sum;
+                            })
+                            .sum());
         }
 
     }//end inner class FlatSum
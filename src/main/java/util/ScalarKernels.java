@@ -0,0 +1,171 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The scalar implementation of the {@link Kernels}. It is used when the Java
+ * Vector API is not available.
+ */
+class ScalarKernels implements Kernels.Provider {
+
+    @Override
+    public double dotProduct(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        double dotProduct = 0.0;
+        for (int i = 0; i < length; ++i) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double dotProduct(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        double dotProduct = 0.0;
+        for (int i = 0; i < length; ++i) {
+            dotProduct += (double) a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double dotProduct(@NotNull float[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        double dotProduct = 0.0;
+        for (int i = 0; i < length; ++i) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        double sqrDistance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            final double D = a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        double sqrDistance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            final double D = (double) a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull float[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        double sqrDistance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            final double D = a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double distance1(@NotNull double[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        double distance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            distance += Math.abs(a[aOffset + i] - b[bOffset + i]);
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distance1(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        double distance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            distance += Math.abs((double) a[aOffset + i] - b[bOffset + i]);
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distanceInf(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        double distance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            distance = Math.max(distance, Math.abs(a[aOffset + i] -
+                    b[bOffset + i]));
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distanceInf(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        double distance = 0.0;
+        for (int i = 0; i < length; ++i) {
+            distance = Math.max(distance, Math.abs((double) a[aOffset + i] -
+                    b[bOffset + i]));
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double norm1(@NotNull double[] a, int offset, int length) {
+        double norm = 0.0;
+        for (int i = 0; i < length; ++i) {
+            norm += Math.abs(a[offset + i]);
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double norm1(@NotNull float[] a, int offset, int length) {
+        double norm = 0.0;
+        for (int i = 0; i < length; ++i) {
+            norm += Math.abs(a[offset + i]);
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double normInf(@NotNull double[] a, int offset, int length) {
+        double norm = 0.0;
+        for (int i = 0; i < length; ++i) {
+            norm = Math.max(norm, Math.abs(a[offset + i]));
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double normInf(@NotNull float[] a, int offset, int length) {
+        double norm = 0.0;
+        for (int i = 0; i < length; ++i) {
+            norm = Math.max(norm, Math.abs(a[offset + i]));
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+
+}//end class ScalarKernels
\ No newline at end of file
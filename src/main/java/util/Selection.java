@@ -0,0 +1,199 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A strategy to select the k ids with the largest scores, among n scored ids.
+ * A heap costs O(n log k) and touches only k scores per replacement, so it is
+ * the fastest for small k. Quickselect costs O(n) on average, regardless of
+ * k, but it needs all the n scores in an array it can reorder, so it pays
+ * off when k is a large fraction of n.
+ */
+public enum Selection {
+
+    /**
+     * Chooses between {@link #HEAP} and {@link #QUICKSELECT} by the ratio k/n.
+     */
+    AUTO,
+
+    /**
+     * A {@link TopK} min-heap, that the scores are offered to one by one.
+     */
+    HEAP,
+
+    /**
+     * An introselect on an array with all the scores: a quickselect with a
+     * median of 3 pivot, that falls back to a heap if it partitions too many
+     * times.
+     */
+    QUICKSELECT;
+
+    /**
+     * The smallest ratio k/n, for which {@link #AUTO} chooses {@link
+     * #QUICKSELECT}.
+     */
+    public static final double QUICKSELECT_RATIO = 1.0 / 32;
+
+    /**
+     * Gets the strategy that this {@link Selection} runs with, for the given
+     * number of scored ids and k.
+     * @param n The number of scored ids.
+     * @param k The number of ids to select.
+     * @return This {@link Selection}, if it is not {@link #AUTO}, otherwise
+     * {@link #QUICKSELECT} if {@code k >= n * QUICKSELECT_RATIO}, otherwise
+     * {@link #HEAP}.
+     */
+    public @NotNull Selection resolve(final int n, final int k) {
+        if (this != AUTO) {
+            return this;
+        }//end if
+
+        return (k >= n * QUICKSELECT_RATIO) ? QUICKSELECT : HEAP;
+    }
+
+    /**
+     * Selects the k ids with the largest scores, among the ids [0, length),
+     * where the score of id i is scores[i]. NaN scores rank below every other
+     * score, as in {@link TopK}, so that exactly k ids are always selected.
+     * @param scores The scores of the ids. The first length of them are
+     * reordered by {@link #QUICKSELECT}.
+     * @param length The number of scored ids.
+     * @param k The number of ids to select.
+     * @return The {@link TopK} of the current thread (see {@link
+     * TopK#local(int)}), with the k selected ids and their scores, in heap
+     * order.
+     * @throws IllegalArgumentException If {@code k < 1 || k > length}.
+     * @throws IndexOutOfBoundsException If {@code length > scores.length}.
+     */
+    public @NotNull TopK select(@NotNull double[] scores, final int length,
+            final int k) {
+        Objects.checkFromIndexSize(0, length, scores.length);
+        if (k < 1 || k > length) {
+            throw new IllegalArgumentException("Argument k must be in " +
+                    "[1, length].");
+        }//end if
+
+        if (this.resolve(length, k) == HEAP) {
+            TopK topK = TopK.local(k);
+            for (int id = 0; id < length; ++id) {
+                topK.offer(id, scores[id]);
+            }//end for
+            return topK;
+        }//end if
+
+        final int[] IDS = quickselect(scores, length, k);
+        TopK topK = TopK.local(k);
+        for (int i = 0; i < k; ++i) {
+            topK.offer(IDS[i], scores[i]);
+        }//end for
+
+        return topK;
+    }
+
+    /**
+     * Reorders the first length scores, so that the first k of them are the
+     * largest ones.
+     * @return The ids of the scores, in their new order.
+     */
+    private static @NotNull int[] quickselect(@NotNull double[] scores,
+            final int length, final int k) {
+        final int[] IDS = new int[length];
+        for (int id = 0; id < length; ++id) {
+            IDS[id] = id;
+        }//end for
+
+        //The NaN scores rank below every other one, so they are moved to the
+        //end, and only the ones needed to fill k are ever selected
+        int numbers = length;
+        for (int i = length - 1; i >= 0; --i) {
+            if (Double.isNaN(scores[i])) {
+                swap(scores, IDS, i, --numbers);
+            }//end if
+        }//end for
+        if (numbers <= k) {
+            return IDS;
+        }//end if
+
+        //Positions [lo, hi] contain the k-th largest score, every position
+        //before lo has a score >= than it and every position after hi a score
+        //<= than it
+        final int TARGET = k - 1;
+        int lo = 0;
+        int hi = numbers - 1;
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(numbers));
+        while (lo < hi) {
+            if (depth-- == 0) {
+                heapselect(scores, IDS, lo, hi, TARGET - lo + 1);
+                break;
+            }//end if
+
+            final double PIVOT = medianOf3(scores[lo], scores[(lo + hi) >>> 1],
+                    scores[hi]);
+
+            //A 3-way partition in descending order, so that many equal scores
+            //do not degrade it: [lo, lt) > PIVOT, [lt, gt] == PIVOT and
+            //(gt, hi] < PIVOT
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                if (scores[i] > PIVOT) {
+                    swap(scores, IDS, lt++, i++);
+                } else if (scores[i] < PIVOT) {
+                    swap(scores, IDS, i, gt--);
+                } else {
+                    ++i;
+                }//end if
+            }//end while
+
+            if (TARGET < lt) {
+                hi = lt - 1;
+            } else if (TARGET > gt) {
+                lo = gt + 1;
+            } else {
+                break;
+            }//end if
+        }//end while
+
+        return IDS;
+    }
+
+    /**
+     * Moves the ids with the count largest scores of [lo, hi] to [lo, lo +
+     * count).
+     */
+    private static void heapselect(@NotNull double[] scores, @NotNull int[]
+            ids, final int lo, final int hi, final int count) {
+        TopK topK = TopK.local(count);
+        for (int i = lo; i <= hi; ++i) {
+            topK.offer(i, scores[i]);
+        }//end for
+
+        //The positions are sorted, so that every swap moves a selected position
+        //to the front, without touching the ones already moved
+        final int[] POSITIONS = topK.ids();
+        Arrays.sort(POSITIONS);
+        for (int i = 0; i < POSITIONS.length; ++i) {
+            swap(scores, ids, lo + i, POSITIONS[i]);
+        }//end for
+    }
+
+    private static double medianOf3(final double a, final double b, final
+            double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void swap(@NotNull double[] scores, @NotNull int[] ids,
+            final int i, final int j) {
+        final double SCORE = scores[i];
+        scores[i] = scores[j];
+        scores[j] = SCORE;
+        final int ID = ids[i];
+        ids[i] = ids[j];
+        ids[j] = ID;
+    }
+
+}//end enum Selection
\ No newline at end of file
@@ -0,0 +1,338 @@
+package util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The SIMD implementation of the {@link Kernels}, based on the incubating Java
+ * Vector API. The floats are widened to double lanes as they are loaded, so
+ * that every sum is accumulated in double precision, like in the scalar
+ * implementation. This class must only be loaded if the {@code
+ * jdk.incubator.vector} module is present.
+ */
+class SimdKernels implements Kernels.Provider {
+
+    private static final VectorSpecies<Double> DOUBLES =
+            DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Float> FLOATS =
+            FloatVector.SPECIES_PREFERRED;
+
+    /**
+     * The species of floats that has as many lanes as the preferred species of
+     * doubles, so that it can be widened to it lane by lane.
+     */
+    private static final VectorSpecies<Float> HALF_FLOATS = VectorSpecies.of(
+            float.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+
+    /**
+     * Indicates if the hardware has SIMD support that the Java Vector API can
+     * use.
+     * @return True if the preferred species have more than 1 lane, otherwise
+     * false.
+     */
+    static boolean isSupported() {
+        return DOUBLES.length() > 1;
+    }
+
+    @Override
+    public double dotProduct(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = DoubleVector.fromArray(DOUBLES, a, aOffset + i)
+                              .fma(DoubleVector.fromArray(DOUBLES, b,
+                                      bOffset + i), sum);
+        }//end for
+
+        double dotProduct = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double dotProduct(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = SimdKernels.widen(a, aOffset + i)
+                             .fma(SimdKernels.widen(b, bOffset + i), sum);
+        }//end for
+
+        double dotProduct = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            dotProduct += (double) a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double dotProduct(@NotNull float[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = SimdKernels.widen(a, aOffset + i)
+                             .fma(DoubleVector.fromArray(DOUBLES, b,
+                                     bOffset + i), sum);
+        }//end for
+
+        double dotProduct = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            dotProduct += a[aOffset + i] * b[bOffset + i];
+        }//end for
+
+        return dotProduct;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            DoubleVector d = DoubleVector.fromArray(DOUBLES, a, aOffset + i)
+                                         .sub(DoubleVector.fromArray(DOUBLES, b,
+                                                 bOffset + i));
+            sum = d.fma(d, sum);
+        }//end for
+
+        double sqrDistance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final double D = a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            DoubleVector d = SimdKernels.widen(a, aOffset + i)
+                                        .sub(SimdKernels.widen(b, bOffset + i));
+            sum = d.fma(d, sum);
+        }//end for
+
+        double sqrDistance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final double D = (double) a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double sqrDistance(@NotNull float[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            DoubleVector d = SimdKernels.widen(a, aOffset + i)
+                                        .sub(DoubleVector.fromArray(DOUBLES, b,
+                                                bOffset + i));
+            sum = d.fma(d, sum);
+        }//end for
+
+        double sqrDistance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            final double D = a[aOffset + i] - b[bOffset + i];
+            sqrDistance += D * D;
+        }//end for
+
+        return sqrDistance;
+    }
+
+    @Override
+    public double distance1(@NotNull double[] a, int aOffset, @NotNull double[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = sum.add(DoubleVector.fromArray(DOUBLES, a, aOffset + i)
+                                      .sub(DoubleVector.fromArray(DOUBLES, b,
+                                              bOffset + i))
+                                      .abs());
+        }//end for
+
+        double distance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            distance += Math.abs(a[aOffset + i] - b[bOffset + i]);
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distance1(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = sum.add(SimdKernels.widen(a, aOffset + i)
+                                     .sub(SimdKernels.widen(b, bOffset + i))
+                                     .abs());
+        }//end for
+
+        double distance = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            distance += Math.abs((double) a[aOffset + i] - b[bOffset + i]);
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distanceInf(@NotNull double[] a, int aOffset, @NotNull
+            double[] b, int bOffset, int length) {
+        DoubleVector max = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            max = max.max(DoubleVector.fromArray(DOUBLES, a, aOffset + i)
+                                      .sub(DoubleVector.fromArray(DOUBLES, b,
+                                              bOffset + i))
+                                      .abs());
+        }//end for
+
+        double distance = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; ++i) {
+            distance = Math.max(distance, Math.abs(a[aOffset + i] -
+                    b[bOffset + i]));
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double distanceInf(@NotNull float[] a, int aOffset, @NotNull float[]
+            b, int bOffset, int length) {
+        DoubleVector max = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            max = max.max(SimdKernels.widen(a, aOffset + i)
+                                     .sub(SimdKernels.widen(b, bOffset + i))
+                                     .abs());
+        }//end for
+
+        double distance = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; ++i) {
+            distance = Math.max(distance, Math.abs((double) a[aOffset + i] -
+                    b[bOffset + i]));
+        }//end for
+
+        return distance;
+    }
+
+    @Override
+    public double norm1(@NotNull double[] a, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = sum.add(DoubleVector.fromArray(DOUBLES, a, offset + i)
+                                      .abs());
+        }//end for
+
+        double norm = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            norm += Math.abs(a[offset + i]);
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double norm1(@NotNull float[] a, int offset, int length) {
+        DoubleVector sum = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            sum = sum.add(SimdKernels.widen(a, offset + i).abs());
+        }//end for
+
+        double norm = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; ++i) {
+            norm += Math.abs(a[offset + i]);
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double normInf(@NotNull double[] a, int offset, int length) {
+        DoubleVector max = DoubleVector.zero(DOUBLES);
+        int i = 0;
+        for (final int BOUND = DOUBLES.loopBound(length); i < BOUND; i +=
+                DOUBLES.length()) {
+            max = max.max(DoubleVector.fromArray(DOUBLES, a, offset + i)
+                                      .abs());
+        }//end for
+
+        double norm = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; ++i) {
+            norm = Math.max(norm, Math.abs(a[offset + i]));
+        }//end for
+
+        return norm;
+    }
+
+    @Override
+    public double normInf(@NotNull float[] a, int offset, int length) {
+        FloatVector max = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (final int BOUND = FLOATS.loopBound(length); i < BOUND; i +=
+                FLOATS.length()) {
+            max = max.max(FloatVector.fromArray(FLOATS, a, offset + i).abs());
+        }//end for
+
+        double norm = max.reduceLanes(VectorOperators.MAX);
+        for (; i < length; ++i) {
+            norm = Math.max(norm, Math.abs(a[offset + i]));
+        }//end for
+
+        return norm;
+    }
+
+    /**
+     * Loads floats from an array and widens them to doubles.
+     * @param a The array to load the floats from.
+     * @param offset The index of the 1st float to load.
+     * @return A vector of the preferred species of doubles, with the widened
+     * floats.
+     */
+    private static @NotNull DoubleVector widen(@NotNull float[] a, int offset) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOATS, a, offset)
+                                         .convertShape(VectorOperators.F2D,
+                                                 DOUBLES, 0);
+    }
+
+    @Override
+    public String toString() {
+        return "simd";
+    }
+
+}//end class SimdKernels
\ No newline at end of file
@@ -0,0 +1,308 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Keeps the k (id, score) pairs with the largest scores among all the pairs
+ * offered to it. The pairs are kept in a fixed capacity min-heap of primitive
+ * arrays, so that the pair with the smallest score is the one replaced, and
+ * nothing is allocated per offer. A NaN score ranks below every other score,
+ * negative infinity included, so a pair with a NaN score is only kept while
+ * there are less than k other pairs, and it keeps its NaN score. This is the
+ * NaN policy of every selection of the project.
+ */
+public class TopK {
+
+    /**
+     * A {@link TopK} for every thread, to be reused by consecutive selections.
+     */
+    private static final ThreadLocal<TopK> LOCAL = ThreadLocal.withInitial(
+            () -> new TopK(1));
+
+    /**
+     * The ids of the pairs, in heap order.
+     */
+    private @NotNull int[] ids;
+
+    /**
+     * The scores of the pairs, in heap order.
+     */
+    private @NotNull double[] scores;
+
+    /**
+     * The maximum number of pairs to keep.
+     */
+    private int k;
+
+    /**
+     * The number of pairs kept.
+     */
+    private int size;
+
+    /**
+     * Indicates if the pairs are sorted, i.e. they are not a heap anymore.
+     */
+    private boolean sorted;
+
+    /**
+     * Gets the {@link TopK} of the current thread, cleared and ready to keep k
+     * pairs. It must not be used after the current thread calls this method
+     * again, so it should not be held by code that calls other selections,
+     * including user code, like a score or a distance function, which may
+     * run selections of its own while the {@link TopK} is filled. Such
+     * selections allocate their own {@link TopK} instead.
+     * @param k The maximum number of pairs to keep.
+     * @return The {@link TopK} of the current thread.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     */
+    public static @NotNull TopK local(final int k) {
+        TopK topK = LOCAL.get();
+        topK.reset(k);
+        return topK;
+    }
+
+    /**
+     * Creates an empty {@link TopK}.
+     * @param k The maximum number of pairs to keep.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     */
+    public TopK(final int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Argument k must be >= 1.");
+        }//end if
+
+        this.ids = new int[k];
+        this.scores = new double[k];
+        this.k = k;
+    }
+
+    /**
+     * Removes all the pairs of this {@link TopK} and sets the maximum number of
+     * pairs to keep. The arrays are reused if they are large enough.
+     * @param k The maximum number of pairs to keep.
+     * @throws IllegalArgumentException If {@code k < 1}.
+     */
+    public void reset(final int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("Argument k must be >= 1.");
+        }//end if
+
+        if (k > this.ids.length) {
+            this.ids = new int[k];
+            this.scores = new double[k];
+        }//end if
+
+        this.k = k;
+        this.size = 0;
+        this.sorted = false;
+    }
+
+    /**
+     * Offers a pair to this {@link TopK}. The pair is kept if there are less
+     * than k pairs, or if its score is larger than the smallest kept score,
+     * which is then removed. A NaN score ranks below every other score.
+     * @param id The id of the pair.
+     * @param score The score of the pair.
+     * @return True if the pair is kept, otherwise false.
+     * @throws IllegalStateException If {@link #sortDescending()} is called
+     * after the last {@link #reset(int)}.
+     */
+    public boolean offer(final int id, final double score) {
+        this.checkNotSorted();
+        if (this.size < this.k) {
+            this.siftUp(this.size++, id, score);
+            return true;
+        }//end if
+
+        if (!TopK.above(score, this.scores[0])) {
+            return false;
+        }//end if
+
+        this.siftDown(0, id, score);
+        return true;
+    }
+
+    /**
+     * Offers the pairs (firstId + i, scores[i]) for every i in [0, length).
+     * @param scores The scores of the pairs.
+     * @param length The number of pairs to offer.
+     * @param firstId The id of the 1st pair.
+     * @throws IndexOutOfBoundsException If {@code length > scores.length}.
+     * @throws IllegalStateException If {@link #sortDescending()} is called
+     * after the last {@link #reset(int)}.
+     */
+    public void offerAll(@NotNull double[] scores, final int length, final int
+            firstId) {
+        Objects.checkFromIndexSize(0, length, scores.length);
+        this.checkNotSorted();
+        int i = 0;
+        //Fills the heap, then compares against its root without a call
+        for (; i < length && this.size < this.k; ++i) {
+            this.offer(firstId + i, scores[i]);
+        }//end for
+
+        for (; i < length; ++i) {
+            if (TopK.above(scores[i], this.scores[0])) {
+                this.siftDown(0, firstId + i, scores[i]);
+            }//end if
+        }//end for
+    }
+
+    /**
+     * Offers all the pairs of another {@link TopK} to this {@link TopK}.
+     * @param other The {@link TopK} whose pairs are offered.
+     * @throws IllegalStateException If {@link #sortDescending()} is called
+     * after the last {@link #reset(int)}.
+     */
+    public void merge(@NotNull TopK other) {
+        for (int i = 0; i < other.size; ++i) {
+            this.offer(other.ids[i], other.scores[i]);
+        }//end for
+    }
+
+    /**
+     * Gets the smallest score that a pair must exceed to be kept. It is never
+     * NaN, so that it can bound a search safely.
+     * @return The smallest kept score, if k pairs are kept and it is not NaN,
+     * otherwise negative infinity.
+     */
+    public double threshold() {
+        return (this.size < this.k || Double.isNaN(this.scores[0])) ?
+                Double.NEGATIVE_INFINITY : this.scores[0];
+    }
+
+    /**
+     * Gets the maximum number of pairs to keep.
+     * @return The maximum number of pairs to keep.
+     */
+    public int k() {
+        return this.k;
+    }
+
+    /**
+     * Gets the number of pairs kept.
+     * @return The number of pairs kept.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the id of the i-th pair kept. The pairs are in heap order, unless
+     * {@link #sortDescending()} is called.
+     * @param i The index of the pair, in [0, size()).
+     * @return The id of the i-th pair.
+     * @throws IndexOutOfBoundsException If {@code i < 0 || i >= size()}.
+     */
+    public int id(final int i) {
+        Objects.checkIndex(i, this.size);
+        return this.ids[i];
+    }
+
+    /**
+     * Gets the score of the i-th pair kept. The pairs are in heap order, unless
+     * {@link #sortDescending()} is called.
+     * @param i The index of the pair, in [0, size()).
+     * @return The score of the i-th pair.
+     * @throws IndexOutOfBoundsException If {@code i < 0 || i >= size()}.
+     */
+    public double score(final int i) {
+        Objects.checkIndex(i, this.size);
+        return this.scores[i];
+    }
+
+    /**
+     * Gets the ids of the pairs kept, in the current order.
+     * @return A new array with the ids of the pairs kept.
+     */
+    public @NotNull int[] ids() {
+        return Arrays.copyOf(this.ids, this.size);
+    }
+
+    /**
+     * Gets the scores of the pairs kept, in the current order.
+     * @return A new array with the scores of the pairs kept.
+     */
+    public @NotNull double[] scores() {
+        return Arrays.copyOf(this.scores, this.size);
+    }
+
+    /**
+     * Sorts the pairs kept in descending order of their scores, in place. The
+     * heap is then consumed, so no pair can be offered until {@link
+     * #reset(int)} is called.
+     */
+    public void sortDescending() {
+        if (this.sorted) {
+            return;
+        }//end if
+
+        //Heap sort, where the smallest remaining score is moved to the end
+        for (int end = this.size - 1; end > 0; --end) {
+            final int ID = this.ids[end];
+            final double SCORE = this.scores[end];
+            this.ids[end] = this.ids[0];
+            this.scores[end] = this.scores[0];
+            final int SIZE = this.size;
+            this.size = end;
+            this.siftDown(0, ID, SCORE);
+            this.size = SIZE;
+        }//end for
+
+        this.sorted = true;
+    }
+
+    private void checkNotSorted() {
+        if (this.sorted) {
+            throw new IllegalStateException("Call reset() first.");
+        }//end if
+    }
+
+    /**
+     * Checks if a score ranks above another one, with NaN below every score.
+     */
+    private static boolean above(final double score1, final double score2) {
+        //The 2nd condition is only checked when the plain comparison fails,
+        //which a NaN on either side makes it do
+        return score1 > score2 || (score2 != score2 && score1 == score1);
+    }
+
+    private void siftUp(int i, final int id, final double score) {
+        while (i > 0 && TopK.above(this.scores[(i - 1) / 2], score)) {
+            this.ids[i] = this.ids[(i - 1) / 2];
+            this.scores[i] = this.scores[(i - 1) / 2];
+            i = (i - 1) / 2;
+        }//end while
+
+        this.ids[i] = id;
+        this.scores[i] = score;
+    }
+
+    private void siftDown(int i, final int id, final double score) {
+        while (2 * i + 1 < this.size) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.size && TopK.above(this.scores[child],
+                    this.scores[child + 1])) {
+                ++child;
+            }//end if
+            if (!TopK.above(score, this.scores[child])) {
+                break;
+            }//end if
+            this.ids[i] = this.ids[child];
+            this.scores[i] = this.scores[child];
+            i = child;
+        }//end while
+
+        this.ids[i] = id;
+        this.scores[i] = score;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TopK - k: %d - size: %d", this.k, this.size);
+    }
+
+}//end class TopK
\ No newline at end of file
@@ -2,8 +2,11 @@ package util;
 
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
 
@@ -13,11 +16,365 @@ import java.util.stream.Collectors;
  */
 public class Vector {
 
+    /**
+     * The ways a reduction over the coordinates of a Vector, like a norm, can
+     * be executed.
+     */
+    public enum Reduction {
+
+        /**
+         * A plain loop on the calling thread.
+         */
+        SEQUENTIAL,
+
+        /**
+         * The {@link Kernels} on the calling thread. They are SIMD, if the
+         * Java Vector API is available.
+         */
+        SIMD,
+
+        /**
+         * A parallel stream on the common {@link ForkJoinPool}.
+         */
+        PARALLEL
+
+    }//end enum Reduction
+
+    /**
+     * Chooses how a reduction over the coordinates of a Vector is executed,
+     * based on the size of the Vector.
+     * @see #setExecutionPolicy(ExecutionPolicy)
+     */
+    @FunctionalInterface
+    public interface ExecutionPolicy {
+
+        /**
+         * Creates an {@link ExecutionPolicy} that always chooses the given
+         * {@link Reduction}. It is meant for benchmarks.
+         * @param reduction The {@link Reduction} to always choose.
+         * @return An {@link ExecutionPolicy} that always chooses the given
+         * {@link Reduction}.
+         */
+        static @NotNull ExecutionPolicy pinned(@NotNull Reduction reduction) {
+            return size -> reduction;
+        }
+
+        /**
+         * Creates an {@link ExecutionPolicy} that chooses {@link
+         * Reduction#PARALLEL} for Vectors with size {@literal >=}
+         * parallelThreshold, unless it is called from a {@link ForkJoinPool}
+         * thread, i.e. from inside a parallel stream. Otherwise it chooses
+         * {@link Reduction#SIMD} for Vectors with size {@literal >=}
+         * simdThreshold and {@link Reduction#SEQUENTIAL} for the rest.
+         * @param simdThreshold The minimum size to choose {@link
+         * Reduction#SIMD}.
+         * @param parallelThreshold The minimum size to choose {@link
+         * Reduction#PARALLEL}.
+         * @return An {@link ExecutionPolicy} based on the given thresholds.
+         */
+        static @NotNull ExecutionPolicy thresholds(final int simdThreshold,
+                final int parallelThreshold) {
+            return size -> {
+                if (size >= parallelThreshold && !(Thread.currentThread()
+                        instanceof ForkJoinWorkerThread)) {
+                    return Reduction.PARALLEL;
+                }//end if
+
+                return (size >= simdThreshold) ? Reduction.SIMD :
+                        Reduction.SEQUENTIAL;
+            };
+        }
+
+        /**
+         * Gets the {@link ExecutionPolicy} of the Vectors that have no other
+         * one set. It has the thresholds of the last {@link
+         * Vector#calibrate()}, or fixed defaults if it is never called. The
+         * system properties {@code util.vector.simdThreshold} and {@code
+         * util.vector.parallelThreshold} override the respective threshold in
+         * both cases.
+         * @return The calibrated {@link ExecutionPolicy}.
+         * @see #thresholds(int, int)
+         */
+        static @NotNull ExecutionPolicy calibrated() {
+            return Calibration.policy;
+        }
+
+        /**
+         * Chooses how a reduction over the coordinates of a Vector is
+         * executed.
+         * @param size The size of the Vector.
+         * @return The {@link Reduction} to execute.
+         */
+        @NotNull Reduction choose(int size);
+
+    }//end interface ExecutionPolicy
+
+    /**
+     * Calibrates the thresholds of {@link ExecutionPolicy#calibrated()}, by
+     * timing the reductions on the running machine. It only runs when {@link
+     * Vector#calibrate()} is called, so that no query pays for it.
+     */
+    private static final class Calibration {
+
+        /**
+         * The minimum size to choose {@link Reduction#SIMD}, by default.
+         */
+        private static final int DEFAULT_SIMD_THRESHOLD = 32;
+
+        /**
+         * The minimum size to choose {@link Reduction#PARALLEL}, by default.
+         */
+        private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
+        /**
+         * The time, in nanoseconds, that every reduction runs before anything
+         * is timed, so that the JIT compiles it first.
+         */
+        private static final long WARM_UP = 200_000_000L;
+
+        /**
+         * How many times every timed reduction is repeated. The fastest time
+         * is kept.
+         */
+        private static final int REPETITIONS = 5;
+
+        /**
+         * How many times every threshold is searched. The median is kept, so
+         * that a single noisy search does not decide it.
+         */
+        private static final int ROUNDS = 5;
+
+        /**
+         * The policy of {@link ExecutionPolicy#calibrated()}.
+         */
+        static volatile @NotNull ExecutionPolicy policy = ExecutionPolicy
+                .thresholds(Calibration.simdThreshold(DEFAULT_SIMD_THRESHOLD),
+                        Calibration.parallelThreshold(
+                        DEFAULT_PARALLEL_THRESHOLD));
+
+        /**
+         * Times the reductions and replaces the policy of {@link
+         * ExecutionPolicy#calibrated()}.
+         * @return The new policy.
+         */
+        static synchronized @NotNull ExecutionPolicy run() {
+            final boolean SIMD = !"scalar".equals(Kernels.implementation()) &&
+                    null == Integer.getInteger("util.vector.simdThreshold");
+            final boolean PARALLEL = ForkJoinPool.getCommonPoolParallelism() >=
+                    2 && null == Integer.getInteger(
+                    "util.vector.parallelThreshold");
+            Calibration.warmUp(Reduction.SEQUENTIAL, 1 << 10);
+            if (SIMD) {
+                Calibration.warmUp(Reduction.SIMD, 1 << 10);
+            }//end if
+            if (PARALLEL) {
+                Calibration.warmUp(Reduction.PARALLEL, 1 << 16);
+            }//end if
+
+            final int SIMD_THRESHOLD = SIMD ? Calibration.median(
+                    Reduction.SEQUENTIAL, Reduction.SIMD, 2, 1 << 10) :
+                    Calibration.simdThreshold(Integer.MAX_VALUE);
+            final int PARALLEL_THRESHOLD = PARALLEL ? Calibration.median(
+                    Reduction.SIMD, Reduction.PARALLEL, 1 << 12, 1 << 22) :
+                    Calibration.parallelThreshold(Integer.MAX_VALUE);
+            Calibration.policy = ExecutionPolicy.thresholds(SIMD_THRESHOLD,
+                    PARALLEL_THRESHOLD);
+            return Calibration.policy;
+        }
+
+        /**
+         * Gets the SIMD threshold of its system property, or the given one if
+         * the property is not set.
+         */
+        private static int simdThreshold(final int otherwise) {
+            if ("scalar".equals(Kernels.implementation())) {
+                return Integer.getInteger("util.vector.simdThreshold",
+                        Integer.MAX_VALUE);
+            }//end if
+
+            return Integer.getInteger("util.vector.simdThreshold", otherwise);
+        }
+
+        /**
+         * Gets the parallel threshold of its system property, or the given one
+         * if the property is not set.
+         */
+        private static int parallelThreshold(final int otherwise) {
+            if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+                return Integer.getInteger("util.vector.parallelThreshold",
+                        Integer.MAX_VALUE);
+            }//end if
+
+            return Integer.getInteger("util.vector.parallelThreshold",
+                    otherwise);
+        }
+
+        /**
+         * Runs a reduction repeatedly for {@link #WARM_UP} nanoseconds.
+         */
+        private static void warmUp(@NotNull Reduction reduction, final int
+                size) {
+            final double[] COORDINATES = new double[size];
+            Arrays.fill(COORDINATES, 1.0);
+            final long END = System.nanoTime() + WARM_UP;
+            double sink = 0.0;
+            while (System.nanoTime() < END) {
+                sink += Vector.sqrNorm2(COORDINATES, reduction);
+            }//end while
+
+            Calibration.consume(sink);
+        }
+
+        /**
+         * Searches a threshold {@link #ROUNDS} times and keeps the median.
+         */
+        private static int median(@NotNull Reduction baseline, @NotNull
+                Reduction candidate, final int from, final int to) {
+            final int[] THRESHOLDS = new int[ROUNDS];
+            for (int i = 0; i < ROUNDS; ++i) {
+                THRESHOLDS[i] = Calibration.threshold(baseline, candidate, from,
+                        to);
+            }//end for
+            Arrays.sort(THRESHOLDS);
+
+            return THRESHOLDS[ROUNDS / 2];
+        }
+
+        /**
+         * Finds the smallest power of 2 size, for which a candidate {@link
+         * Reduction} is faster than a baseline one.
+         * @param baseline The baseline {@link Reduction}.
+         * @param candidate The candidate {@link Reduction}.
+         * @param from The smallest size to try.
+         * @param to The largest size to try.
+         * @return The smallest size for which the candidate is faster, or
+         * {@link Integer#MAX_VALUE} if there is no such size.
+         */
+        private static int threshold(@NotNull Reduction baseline, @NotNull
+                Reduction candidate, final int from, final int to) {
+            //The candidate must win at 2 consecutive sizes, so that a single
+            //noisy timing does not decide the threshold
+            boolean won = false;
+            for (int size = from; size <= to; size <<= 1) {
+                final double[] COORDINATES = new double[size];
+                Arrays.fill(COORDINATES, 1.0);
+                if (Calibration.time(candidate, COORDINATES) <
+                        Calibration.time(baseline, COORDINATES)) {
+                    if (won) {
+                        return size >> 1;
+                    }//end if
+                    won = true;
+                } else {
+                    won = false;
+                }//end if
+            }//end for
+
+            return Integer.MAX_VALUE;
+        }
+
+        private static long time(@NotNull Reduction reduction, @NotNull
+                double[] coordinates) {
+            //Enough calls to time small sizes above the timer resolution,
+            //while large sizes stay cheap
+            final int CALLS = Math.max(1, (1 << 14) / coordinates.length);
+            long best = Long.MAX_VALUE;
+            double sink = 0.0;
+            for (int r = 0; r < REPETITIONS; ++r) {
+                final long START = System.nanoTime();
+                for (int c = 0; c < CALLS; ++c) {
+                    sink += Vector.sqrNorm2(coordinates, reduction);
+                }//end for
+                best = Math.min(best, System.nanoTime() - START);
+            }//end for
+
+            Calibration.consume(sink);
+            return best;
+        }
+
+        /**
+         * Keeps the reductions that produced a value from being eliminated as
+         * dead code. The value is never NaN.
+         */
+        private static void consume(final double sink) {
+            if (Double.isNaN(sink)) {
+                throw new AssertionError();
+            }//end if
+        }
+
+    }//end class Calibration
+
+    /**
+     * The {@link ExecutionPolicy} of the reductions of all the Vectors, or null
+     * if the calibrated one is used.
+     */
+    private static volatile @Nullable ExecutionPolicy executionPolicy;
+
     /**
      * The coordinates of the end point of this Vector.
      */
     private @NotNull double[] coordinates;
 
+    /**
+     * Calibrates the thresholds of {@link ExecutionPolicy#calibrated()} on the
+     * running machine, by timing the reductions after they are compiled. It
+     * takes under a second, so the application should call it once at
+     * startup, before it serves queries. Until then, the calibrated policy
+     * has fixed defaults. The thresholds that are set by the system
+     * properties {@code util.vector.simdThreshold} and {@code
+     * util.vector.parallelThreshold} are not timed.
+     * @return The calibrated {@link ExecutionPolicy}.
+     */
+    public static @NotNull ExecutionPolicy calibrate() {
+        return Calibration.run();
+    }
+
+    /**
+     * Sets the {@link ExecutionPolicy} of the reductions (the norms) of all
+     * the Vectors. Benchmarks can use it to pin a {@link Reduction}.
+     * @param executionPolicy The new {@link ExecutionPolicy}, or null to use
+     * the calibrated one.
+     * @see ExecutionPolicy#pinned(Reduction)
+     * @see ExecutionPolicy#calibrated()
+     */
+    public static void setExecutionPolicy(@Nullable ExecutionPolicy
+            executionPolicy) {
+        Vector.executionPolicy = executionPolicy;
+    }
+
+    /**
+     * Gets the {@link ExecutionPolicy} of the reductions (the norms) of all
+     * the Vectors.
+     * @return The {@link ExecutionPolicy} of the reductions.
+     */
+    public static @NotNull ExecutionPolicy getExecutionPolicy() {
+        final ExecutionPolicy POLICY = Vector.executionPolicy;
+        return (null == POLICY) ? ExecutionPolicy.calibrated() : POLICY;
+    }
+
+    private static @NotNull Reduction reduction(final int size) {
+        return Vector.getExecutionPolicy().choose(size);
+    }
+
+    private static double sqrNorm2(@NotNull double[] coordinates, @NotNull
+            Reduction reduction) {
+        switch (reduction) {
+            case SIMD:
+                return Kernels.dotProduct(coordinates, 0, coordinates, 0,
+                        coordinates.length);
+            case PARALLEL:
+                return Arrays.stream(coordinates)
+                             .parallel()
+                             .map(x -> x * x)
+                             .sum();
+            default:
+                double sqrNorm = 0.0;
+                for (double x : coordinates) {
+                    sqrNorm += x * x;
+                }//end for
+                return sqrNorm;
+        }//end switch
+    }
+
     /**
      * Indicates if the given Vectors have all the same size.
      * @param vectors An array of Vector's' to determine if they all have the
@@ -181,12 +538,8 @@ public class Vector {
                     "have the same size.");
         }//end if
 
-        double dotProduct = 0.0;
-        for (int i = 0; i < v1.size(); ++i) {
-            dotProduct += v1.get(i) * v2.get(i);
-        }//end for
-
-        return dotProduct;
+        return Kernels.dotProduct(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
     }
 
     /**
@@ -227,13 +580,8 @@ public class Vector {
                     "have the same size.");
         }//end if
 
-        double sqrDistance = 0.0;
-        for (int i = 0; i < v1.size(); ++i) {
-            double d = v1.get(i) - v2.get(i);
-            sqrDistance += d * d;
-        }//end for
-
-        return sqrDistance;
+        return Kernels.sqrDistance(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
     }
 
     /**
@@ -249,6 +597,61 @@ public class Vector {
         return Math.sqrt(Vector.sqrDistance(v1, v2));
     }
 
+    /**
+     * Calculates the 2-norm of the rejection of a Vector v from a unit Vector
+     * u, i.e. ||v - (v * u)u||, given the squared 2-norm of v and the
+     * projection (v * u) of v on u. Since u is a unit Vector, the squared
+     * rejection norm equals ||v||^2 - (v * u)^2, so no Vector needs to be
+     * created.
+     * @param sqrNorm The squared 2-norm of v.
+     * @param projection The dot product of v and u.
+     * @return The 2-norm of the rejection of v from u.
+     */
+    public static double rejectionNorm(final double sqrNorm, final double
+            projection) {
+        //Rounding errors can make the difference slightly negative, when v is
+        //(almost) parallel to u
+        return Math.sqrt(Math.max(0.0, sqrNorm - projection * projection));
+    }
+
+    /**
+     * Calculates the 1-norm distance (Manhattan distance) between 2 given
+     * Vector's'.
+     * @param v1 The 1st Vector.
+     * @param v2 The 2nd Vector.
+     * @return The 1-norm distance between the 2 given Vector's'.
+     * @throws IllegalArgumentException If the 2 given Vector's' do not have the
+     * same size.
+     */
+    public static double distance1(@NotNull Vector v1, @NotNull Vector v2) {
+        if (!Vector.sameSize(v1, v2)) {
+            throw new IllegalArgumentException("The given Vector's' must " +
+                    "have the same size.");
+        }//end if
+
+        return Kernels.distance1(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
+    }
+
+    /**
+     * Calculates the infinity-norm distance (Chebyshev distance) between 2
+     * given Vector's'.
+     * @param v1 The 1st Vector.
+     * @param v2 The 2nd Vector.
+     * @return The infinity-norm distance between the 2 given Vector's'.
+     * @throws IllegalArgumentException If the 2 given Vector's' do not have the
+     * same size.
+     */
+    public static double distanceInf(@NotNull Vector v1, @NotNull Vector v2) {
+        if (!Vector.sameSize(v1, v2)) {
+            throw new IllegalArgumentException("The given Vector's' must " +
+                    "have the same size.");
+        }//end if
+
+        return Kernels.distanceInf(v1.coordinates, 0, v2.coordinates, 0,
+                v1.size());
+    }
+
     /**
      * Calculates the center Vector given a Collection of Vector's'.
      * @param vectors A Collection of Vector's' to calculate their center.
@@ -484,6 +887,15 @@ public class Vector {
         return this.coordinates.length;
     }
 
+    /**
+     * Gets the array that backs the coordinates of this Vector, without
+     * copying it. Changes to the returned array are reflected to this Vector.
+     * @return The array that backs the coordinates of this Vector.
+     */
+    @NotNull double[] coordinates() {
+        return this.coordinates;
+    }
+
     /**
      * Creates a List that represents this Vector.
      * @return A List that represents this Vector.
@@ -635,10 +1047,20 @@ public class Vector {
      * @return The p-norm of this Vector.
      */
     public double pNorm(final double p) {
-        return Math.pow(Arrays.stream(this.coordinates)
-                   .parallel()
-                   .map(x -> Math.pow(Math.abs(x), p))
-                   .sum(), 1.0 / p);
+        //There is no SIMD kernel for the power function
+        if (Reduction.PARALLEL == Vector.reduction(this.size())) {
+            return Math.pow(Arrays.stream(this.coordinates)
+                       .parallel()
+                       .map(x -> Math.pow(Math.abs(x), p))
+                       .sum(), 1.0 / p);
+        }//end if
+
+        double sum = 0.0;
+        for (double x : this.coordinates) {
+            sum += Math.pow(Math.abs(x), p);
+        }//end for
+
+        return Math.pow(sum, 1.0 / p);
     }
 
     /**
@@ -646,10 +1068,21 @@ public class Vector {
      * @return The 1-norm of this Vector.
      */
     public double norm1() {
-        return Arrays.stream(this.coordinates)
-                     .parallel()
-                     .map(Math::abs)
-                     .sum();
+        switch (Vector.reduction(this.size())) {
+            case SIMD:
+                return Kernels.norm1(this.coordinates, 0, this.size());
+            case PARALLEL:
+                return Arrays.stream(this.coordinates)
+                             .parallel()
+                             .map(Math::abs)
+                             .sum();
+            default:
+                double norm = 0.0;
+                for (double x : this.coordinates) {
+                    norm += Math.abs(x);
+                }//end for
+                return norm;
+        }//end switch
     }
 
     /**
@@ -657,10 +1090,8 @@ public class Vector {
      * @return The 2-norm of this Vector.
      */
     public double norm2() {
-        return Math.sqrt(Arrays.stream(this.coordinates)
-                   .parallel()
-                   .map(x -> x * x)
-                   .sum());
+        return Math.sqrt(Vector.sqrNorm2(this.coordinates, Vector.reduction(
+                this.size())));
     }
 
     /**
@@ -668,11 +1099,22 @@ public class Vector {
      * @return The infinity-norm of this Vector.
      */
     public double normInf() {
-        return Arrays.stream(this.coordinates)
-                     .parallel()
-                     .map(Math::abs)
-                     .max()
-                     .getAsDouble();
+        switch (Vector.reduction(this.size())) {
+            case SIMD:
+                return Kernels.normInf(this.coordinates, 0, this.size());
+            case PARALLEL:
+                return Arrays.stream(this.coordinates)
+                             .parallel()
+                             .map(Math::abs)
+                             .max()
+                             .getAsDouble();
+            default:
+                double norm = 0.0;
+                for (double x : this.coordinates) {
+                    norm = Math.max(norm, Math.abs(x));
+                }//end for
+                return norm;
+        }//end switch
     }
 
     /**
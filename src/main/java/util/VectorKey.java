@@ -0,0 +1,93 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of the coordinates of a {@link Vector}, with value
+ * equality, to key the {@link Vector} in hash based collections. A {@link
+ * Vector} is mutable and compares by identity, so it can't be a key itself.
+ * The coordinates are kept either exactly, or quantized to a grid, so that
+ * {@link Vector}s that differ by less than the step of the grid usually get
+ * the same {@link VectorKey}.
+ */
+public final class VectorKey {
+
+    /**
+     * The bits of the coordinates, or the indices of their grid cells.
+     */
+    private final @NotNull long[] coordinates;
+
+    /**
+     * The hash code of the coordinates.
+     */
+    private final int hash;
+
+    private VectorKey(@NotNull long[] coordinates) {
+        this.coordinates = coordinates;
+        this.hash = Arrays.hashCode(coordinates);
+    }
+
+    /**
+     * Creates a {@link VectorKey} with the exact coordinates of a {@link
+     * Vector}. The coordinates -0.0 and 0.0 are considered equal.
+     * @param vector The {@link Vector}.
+     * @return A {@link VectorKey} that is equal only to the keys of {@link
+     * Vector}s with the same coordinates.
+     */
+    public static @NotNull VectorKey exact(@NotNull Vector vector) {
+        final long[] COORDINATES = new long[vector.size()];
+        for (int i = 0; i < COORDINATES.length; ++i) {
+            //Adding 0.0 turns -0.0 to 0.0
+            COORDINATES[i] = Double.doubleToLongBits(vector.get(i) + 0.0);
+        }//end for
+
+        return new VectorKey(COORDINATES);
+    }
+
+    /**
+     * Creates a {@link VectorKey} with the coordinates of a {@link Vector},
+     * rounded to the nearest multiple of a step.
+     * @param vector The {@link Vector}.
+     * @param step The step of the grid.
+     * @return A {@link VectorKey} that is equal to the keys of the {@link
+     * Vector}s that are rounded to the same point of the grid.
+     * @throws IllegalArgumentException If {@code step <= 0}.
+     */
+    public static @NotNull VectorKey quantized(@NotNull Vector vector, final
+            double step) {
+        if (!(step > 0)) {
+            throw new IllegalArgumentException("Argument step must be > 0.");
+        }//end if
+
+        final long[] COORDINATES = new long[vector.size()];
+        for (int i = 0; i < COORDINATES.length; ++i) {
+            COORDINATES[i] = Math.round(vector.get(i) / step);
+        }//end for
+
+        return new VectorKey(COORDINATES);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }//end if
+
+        return o instanceof VectorKey && this.hash == ((VectorKey) o).hash &&
+                Arrays.equals(this.coordinates, ((VectorKey) o).coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VectorKey - dimensions: %d",
+                this.coordinates.length);
+    }
+
+}//end class VectorKey
\ No newline at end of file
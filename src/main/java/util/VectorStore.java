@@ -0,0 +1,636 @@
+package util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A fixed size store of {@link Vector}s that lie in the same Euclidean space.
+ * The coordinates of all the stored {@link Vector}s are packed contiguously in
+ * row-major order, so that no per item object is kept. Every stored {@link
+ * Vector} is addressed by an int id in [0, size()).
+ */
+public class VectorStore {
+
+    /**
+     * The precision that the coordinates of a {@link VectorStore} are stored
+     * in.
+     */
+    public enum Precision {
+
+        /**
+         * The coordinates are stored as doubles.
+         */
+        DOUBLE,
+
+        /**
+         * The coordinates are stored as floats. It halves the memory and the
+         * memory bandwidth of the distance scans, while the calculations are
+         * still accumulated in double precision.
+         */
+        FLOAT
+
+    }//end enum Precision
+
+    /**
+     * The maximum number of coordinates a single chunk can hold. It is kept
+     * below the maximum array length of the JVM.
+     */
+    private static final int MAX_CHUNK_LENGTH = 1 << 30;
+
+    /**
+     * The number of {@link Vector}s of this {@link VectorStore}.
+     */
+    private final int size;
+
+    /**
+     * The number of dimensions of the Euclidean space the stored {@link
+     * Vector}s lie in.
+     */
+    private final int dimensions;
+
+    /**
+     * The number of {@link Vector}s a single chunk holds. Every chunk, except
+     * possibly the last one, holds exactly that many {@link Vector}s, so that a
+     * {@link Vector} never spans 2 chunks.
+     */
+    private final int rowsPerChunk;
+
+    /**
+     * The precision that the coordinates are stored in.
+     */
+    private final @NotNull Precision precision;
+
+    /**
+     * The chunks with the coordinates of the stored {@link Vector}s, in
+     * row-major order, if they are stored as doubles, otherwise null.
+     */
+    private final @Nullable double[][] chunks;
+
+    /**
+     * The chunks with the coordinates of the stored {@link Vector}s, in
+     * row-major order, if they are stored as floats, otherwise null.
+     */
+    private final @Nullable float[][] floatChunks;
+
+    /**
+     * Creates a {@link VectorStore} with the {@link Vector} representations of
+     * the given items. The id of every item is its position in the iteration
+     * order of the given {@link Collection}.
+     * @param items A {@link Collection} with the items to store.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param <T> The type of the items.
+     * @return A new {@link VectorStore} with the {@link Vector}s of the given
+     * items.
+     * @throws IllegalArgumentException If items {@link Collection} is empty.
+     * @throws IllegalArgumentException If the {@link Vector}s of the items
+     * don't have the same size.
+     */
+    public static <T> @NotNull VectorStore of(@NotNull Collection<T> items,
+            @NotNull Function<T, Vector> toVector) {
+        return VectorStore.of(items, toVector, Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link VectorStore} with the {@link Vector} representations of
+     * the given items. The id of every item is its position in the iteration
+     * order of the given {@link Collection}.
+     * @param items A {@link Collection} with the items to store.
+     * @param toVector A {@link Function} that accepts an item and returns its
+     * {@link Vector} representation.
+     * @param precision The precision that the coordinates are stored in.
+     * @param <T> The type of the items.
+     * @return A new {@link VectorStore} with the {@link Vector}s of the given
+     * items.
+     * @throws IllegalArgumentException If items {@link Collection} is empty.
+     * @throws IllegalArgumentException If the {@link Vector}s of the items
+     * don't have the same size.
+     */
+    public static <T> @NotNull VectorStore of(@NotNull Collection<T> items,
+            @NotNull Function<T, Vector> toVector, @NotNull Precision
+            precision) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection items " +
+                    "can't be empty.");
+        }//end if
+
+        VectorStore store = null;
+        int id = 0;
+        for (T item : items) {
+            Vector v = toVector.apply(item);
+            if (null == store) {
+                store = new VectorStore(items.size(), v.size(), precision);
+            }//end if
+            store.set(id++, v);
+        }//end for
+
+        return store;
+    }
+
+    /**
+     * Creates a {@link VectorStore}, that stores its coordinates as floats,
+     * with the {@link FloatVector} representations of the given items. The id
+     * of every item is its position in the iteration order of the given {@link
+     * Collection}.
+     * @param items A {@link Collection} with the items to store.
+     * @param toFloatVector A {@link Function} that accepts an item and returns
+     * its {@link FloatVector} representation.
+     * @param <T> The type of the items.
+     * @return A new {@link VectorStore} with the {@link FloatVector}s of the
+     * given items.
+     * @throws IllegalArgumentException If items {@link Collection} is empty.
+     * @throws IllegalArgumentException If the {@link FloatVector}s of the
+     * items don't have the same size.
+     */
+    public static <T> @NotNull VectorStore ofFloats(@NotNull Collection<T>
+            items, @NotNull Function<T, FloatVector> toFloatVector) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Argument Collection items " +
+                    "can't be empty.");
+        }//end if
+
+        VectorStore store = null;
+        int id = 0;
+        for (T item : items) {
+            FloatVector v = toFloatVector.apply(item);
+            if (null == store) {
+                store = new VectorStore(items.size(), v.size(),
+                        Precision.FLOAT);
+            }//end if
+            store.set(id++, v);
+        }//end for
+
+        return store;
+    }
+
+    /**
+     * Creates a {@link VectorStore}, that stores its coordinates as doubles,
+     * where all the stored {@link Vector}s end
+     * at the origin.
+     * @param size The number of {@link Vector}s to store.
+     * @param dimensions The number of dimensions of the Euclidean space the
+     * stored {@link Vector}s lie in.
+     * @throws IllegalArgumentException If {@code size < 1 || dimensions < 1}.
+     */
+    public VectorStore(final int size, final int dimensions) {
+        this(size, dimensions, Precision.DOUBLE);
+    }
+
+    /**
+     * Creates a {@link VectorStore} where all the stored {@link Vector}s end
+     * at the origin.
+     * @param size The number of {@link Vector}s to store.
+     * @param dimensions The number of dimensions of the Euclidean space the
+     * stored {@link Vector}s lie in.
+     * @param precision The precision that the coordinates are stored in.
+     * @throws IllegalArgumentException If {@code size < 1 || dimensions < 1}.
+     */
+    public VectorStore(final int size, final int dimensions, @NotNull
+            Precision precision) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Argument size can't be < 1.");
+        }//end if
+
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("Argument dimensions can't be " +
+                    "< 1.");
+        }//end if
+
+        this.size = size;
+        this.dimensions = dimensions;
+        this.rowsPerChunk = Math.max(1, MAX_CHUNK_LENGTH / dimensions);
+        this.precision = precision;
+
+        final int CHUNKS = (size - 1) / this.rowsPerChunk + 1;
+        this.chunks = (Precision.DOUBLE == precision) ? new double[CHUNKS][] :
+                null;
+        this.floatChunks = (Precision.FLOAT == precision) ? new float[CHUNKS][]
+                : null;
+        for (int c = 0; c < CHUNKS; ++c) {
+            final int ROWS = Math.min(this.rowsPerChunk, size - c *
+                    this.rowsPerChunk);
+            if (Precision.DOUBLE == precision) {
+                this.chunks[c] = new double[ROWS * dimensions];
+            } else {
+                this.floatChunks[c] = new float[ROWS * dimensions];
+            }//end if
+        }//end for
+    }
+
+    /**
+     * Gets the number of {@link Vector}s of this {@link VectorStore}.
+     * @return The number of {@link Vector}s of this {@link VectorStore}.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of dimensions of the Euclidean space the stored {@link
+     * Vector}s lie in.
+     * @return The number of dimensions of the Euclidean space the stored {@link
+     * Vector}s lie in.
+     */
+    public int dimensions() {
+        return this.dimensions;
+    }
+
+    /**
+     * Gets the precision that the coordinates of this {@link VectorStore} are
+     * stored in.
+     * @return The precision that the coordinates are stored in.
+     */
+    public @NotNull Precision precision() {
+        return this.precision;
+    }
+
+    /**
+     * Gets a copy of the {@link Vector} with the given id.
+     * @param id The id of the {@link Vector}.
+     * @return A new {@link Vector} with the coordinates of the stored {@link
+     * Vector}.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     */
+    public @NotNull Vector get(final int id) {
+        Objects.checkIndex(id, this.size);
+        final int OFFSET = this.offset(id);
+        double[] coordinates = new double[this.dimensions];
+        if (Precision.DOUBLE == this.precision) {
+            System.arraycopy(this.chunk(id), OFFSET, coordinates, 0,
+                    this.dimensions);
+        } else {
+            final float[] CHUNK = this.floatChunk(id);
+            for (int i = 0; i < this.dimensions; ++i) {
+                coordinates[i] = CHUNK[OFFSET + i];
+            }//end for
+        }//end if
+
+        return new Vector(coordinates);
+    }
+
+    /**
+     * Gets the value of the i-coordinate of the {@link Vector} with the given
+     * id.
+     * @param id The id of the {@link Vector}.
+     * @param i The i-coordinate, starting from 0.
+     * @return The value of the i-coordinate of the {@link Vector} with the
+     * given id.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     * @throws IndexOutOfBoundsException If {@code i < 0 || i >=
+     * dimensions()}.
+     */
+    public double get(final int id, final int i) {
+        Objects.checkIndex(id, this.size);
+        Objects.checkIndex(i, this.dimensions);
+        return (Precision.DOUBLE == this.precision) ?
+                this.chunk(id)[this.offset(id) + i] :
+                this.floatChunk(id)[this.offset(id) + i];
+    }
+
+    /**
+     * Sets the coordinates of the {@link Vector} with the given id. They are
+     * rounded to single precision, if this {@link VectorStore} stores floats.
+     * @param id The id of the {@link Vector}.
+     * @param v A {@link Vector} to copy its coordinates.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public void set(final int id, @NotNull Vector v) {
+        Objects.checkIndex(id, this.size);
+        this.checkSize(v.size());
+        final int OFFSET = this.offset(id);
+        if (Precision.DOUBLE == this.precision) {
+            System.arraycopy(v.coordinates(), 0, this.chunk(id), OFFSET,
+                    this.dimensions);
+        } else {
+            final float[] CHUNK = this.floatChunk(id);
+            final double[] COORDINATES = v.coordinates();
+            for (int i = 0; i < this.dimensions; ++i) {
+                CHUNK[OFFSET + i] = (float) COORDINATES[i];
+            }//end for
+        }//end if
+    }
+
+    /**
+     * Sets the coordinates of the {@link Vector} with the given id.
+     * @param id The id of the {@link Vector}.
+     * @param v A {@link FloatVector} to copy its coordinates.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public void set(final int id, @NotNull FloatVector v) {
+        Objects.checkIndex(id, this.size);
+        this.checkSize(v.size());
+        final int OFFSET = this.offset(id);
+        if (Precision.FLOAT == this.precision) {
+            System.arraycopy(v.coordinates(), 0, this.floatChunk(id), OFFSET,
+                    this.dimensions);
+        } else {
+            final double[] CHUNK = this.chunk(id);
+            final float[] COORDINATES = v.coordinates();
+            for (int i = 0; i < this.dimensions; ++i) {
+                CHUNK[OFFSET + i] = COORDINATES[i];
+            }//end for
+        }//end if
+    }
+
+    /**
+     * Subtracts the given {@link Vector} from every stored {@link Vector}.
+     * @param subtrahend The subtrahend {@link Vector} of the subtractions.
+     * @throws IllegalArgumentException If {@code subtrahend.size() !=
+     * dimensions()}.
+     */
+    public void subtract(@NotNull Vector subtrahend) {
+        this.checkSize(subtrahend.size());
+        final double[] COORDINATES = subtrahend.coordinates();
+        if (Precision.DOUBLE == this.precision) {
+            for (double[] chunk : this.chunks) {
+                for (int j = 0; j < chunk.length; ++j) {
+                    chunk[j] -= COORDINATES[j % this.dimensions];
+                }//end for
+            }//end for
+        } else {
+            for (float[] chunk : this.floatChunks) {
+                for (int j = 0; j < chunk.length; ++j) {
+                    chunk[j] -= COORDINATES[j % this.dimensions];
+                }//end for
+            }//end for
+        }//end if
+    }
+
+    /**
+     * Calculates the dot product of the {@link Vector} with the given id and a
+     * given {@link Vector}.
+     * @param id The id of the stored {@link Vector}.
+     * @param v The other {@link Vector} of the dot product.
+     * @return The dot product of the 2 {@link Vector}s.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public double dotProduct(final int id, @NotNull Vector v) {
+        Objects.checkIndex(id, this.size);
+        this.checkSize(v.size());
+        return (Precision.DOUBLE == this.precision) ?
+                Kernels.dotProduct(this.chunk(id), this.offset(id),
+                        v.coordinates(), 0, this.dimensions) :
+                Kernels.dotProduct(this.floatChunk(id), this.offset(id),
+                        v.coordinates(), 0, this.dimensions);
+    }
+
+    /**
+     * Calculates the squared Euclidean distance between the {@link Vector}
+     * with the given id and a given {@link Vector}.
+     * @param id The id of the stored {@link Vector}.
+     * @param v The other {@link Vector}.
+     * @return The squared Euclidean distance between the 2 {@link Vector}s.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public double sqrDistance(final int id, @NotNull Vector v) {
+        Objects.checkIndex(id, this.size);
+        this.checkSize(v.size());
+        return (Precision.DOUBLE == this.precision) ?
+                Kernels.sqrDistance(this.chunk(id), this.offset(id),
+                        v.coordinates(), 0, this.dimensions) :
+                Kernels.sqrDistance(this.floatChunk(id), this.offset(id),
+                        v.coordinates(), 0, this.dimensions);
+    }
+
+    /**
+     * Calculates the dot products of a given {@link Vector} with every stored
+     * {@link Vector} with id in [from, to), in a single pass over the store.
+     * @param v The {@link Vector} to calculate its dot products.
+     * @param from The 1st id, inclusive.
+     * @param to The last id, exclusive.
+     * @param out An array to store the dot products, where {@code out[id -
+     * from]} is the dot product with the {@link Vector} with that id.
+     * @throws IndexOutOfBoundsException If {@code from < 0 || from > to || to
+     * > size()}.
+     * @throws IndexOutOfBoundsException If {@code out.length < to - from}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public void dotProducts(@NotNull Vector v, final int from, final int to,
+            @NotNull double[] out) {
+        this.bulk(v, from, to, out, 0, false);
+    }
+
+    /**
+     * Calculates the squared Euclidean distances between a given {@link
+     * Vector} and every stored {@link Vector} with id in [from, to), in a
+     * single pass over the store.
+     * @param v The {@link Vector} to calculate its distances.
+     * @param from The 1st id, inclusive.
+     * @param to The last id, exclusive.
+     * @param out An array to store the squared distances, where {@code out[id
+     * - from]} is the squared distance from the {@link Vector} with that id.
+     * @throws IndexOutOfBoundsException If {@code from < 0 || from > to || to
+     * > size()}.
+     * @throws IndexOutOfBoundsException If {@code out.length < to - from}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public void sqrDistances(@NotNull Vector v, final int from, final int to,
+            @NotNull double[] out) {
+        this.bulk(v, from, to, out, 0, true);
+    }
+
+    /**
+     * Calculates the squared Euclidean distances between a given {@link
+     * Vector} and every stored {@link Vector} with id in [from, to), in a
+     * single pass over the store, into a slice of an array.
+     * @param v The {@link Vector} to calculate its distances.
+     * @param from The 1st id, inclusive.
+     * @param to The last id, exclusive.
+     * @param out An array to store the squared distances, where {@code
+     * out[outOffset + id - from]} is the squared distance from the {@link
+     * Vector} with that id.
+     * @param outOffset The index of out to store the 1st squared distance at.
+     * @throws IndexOutOfBoundsException If {@code from < 0 || from > to || to
+     * > size()}.
+     * @throws IndexOutOfBoundsException If {@code outOffset < 0 || outOffset
+     * + to - from > out.length}.
+     * @throws IllegalArgumentException If {@code v.size() != dimensions()}.
+     */
+    public void sqrDistances(@NotNull Vector v, final int from, final int to,
+            @NotNull double[] out, final int outOffset) {
+        this.bulk(v, from, to, out, outOffset, true);
+    }
+
+    /**
+     * Calculates the dot products of every {@link Vector} of another {@link
+     * VectorStore} with id in [otherFrom, otherTo), with every {@link Vector}
+     * of this {@link VectorStore} with id in [from, to). The {@link Vector}s of
+     * this {@link VectorStore} are reused by all the other {@link Vector}s,
+     * so the tile should be sized to fit in the cache.
+     * @param other A {@link VectorStore}, that stores its coordinates as
+     * doubles.
+     * @param otherFrom The 1st id of the other {@link VectorStore}, inclusive.
+     * @param otherTo The last id of the other {@link VectorStore}, exclusive.
+     * @param from The 1st id of this {@link VectorStore}, inclusive.
+     * @param to The last id of this {@link VectorStore}, exclusive.
+     * @param out An array to store the dot products in row-major order, where
+     * {@code out[(otherId - otherFrom) * (to - from) + (id - from)]} is the dot
+     * product of the {@link Vector}s with ids otherId and id.
+     * @throws IllegalArgumentException If the other {@link VectorStore} does
+     * not store doubles or has different dimensions.
+     * @throws IndexOutOfBoundsException If any of the id ranges is out of
+     * bounds, or out array is too short.
+     */
+    public void dotProducts(@NotNull VectorStore other, final int otherFrom,
+            final int otherTo, final int from, final int to, @NotNull double[]
+            out) {
+        if (Precision.DOUBLE != other.precision) {
+            throw new IllegalArgumentException("Argument VectorStore other " +
+                    "must store doubles.");
+        }//end if
+
+        this.checkSize(other.dimensions);
+        Objects.checkFromToIndex(otherFrom, otherTo, other.size);
+        Objects.checkFromToIndex(from, to, this.size);
+        final int WIDTH = to - from;
+        Objects.checkFromIndexSize(0, (otherTo - otherFrom) * WIDTH,
+                out.length);
+
+        for (int otherId = otherFrom; otherId < otherTo; ++otherId) {
+            final double[] OTHER_CHUNK = other.chunk(otherId);
+            final int OTHER_OFFSET = other.offset(otherId);
+            final int ROW = (otherId - otherFrom) * WIDTH - from;
+            for (int id = from; id < to; ++id) {
+                out[ROW + id] = (Precision.DOUBLE == this.precision) ?
+                        Kernels.dotProduct(this.chunk(id), this.offset(id),
+                                OTHER_CHUNK, OTHER_OFFSET, this.dimensions) :
+                        Kernels.dotProduct(this.floatChunk(id), this.offset(id),
+                                OTHER_CHUNK, OTHER_OFFSET, this.dimensions);
+            }//end for
+        }//end for
+    }
+
+    /**
+     * Calculates the squared 2-norm of the {@link Vector} with the given id.
+     * @param id The id of the stored {@link Vector}.
+     * @return The squared 2-norm of the {@link Vector} with the given id.
+     * @throws IndexOutOfBoundsException If {@code id < 0 || id >= size()}.
+     */
+    public double sqrNorm(final int id) {
+        Objects.checkIndex(id, this.size);
+        final int OFFSET = this.offset(id);
+        if (Precision.FLOAT == this.precision) {
+            final float[] CHUNK = this.floatChunk(id);
+            return Kernels.dotProduct(CHUNK, OFFSET, CHUNK, OFFSET,
+                    this.dimensions);
+        }//end if
+
+        final double[] CHUNK = this.chunk(id);
+        return Kernels.dotProduct(CHUNK, OFFSET, CHUNK, OFFSET,
+                this.dimensions);
+    }
+
+    /**
+     * Calculates the center {@link Vector} of the stored {@link Vector}s.
+     * @return A new {@link Vector} that represents the center of the stored
+     * {@link Vector}s.
+     */
+    public @NotNull Vector center() {
+        double[] center = new double[this.dimensions];
+        if (Precision.DOUBLE == this.precision) {
+            for (double[] chunk : this.chunks) {
+                for (int j = 0; j < chunk.length; ++j) {
+                    center[j % this.dimensions] += chunk[j];
+                }//end for
+            }//end for
+        } else {
+            for (float[] chunk : this.floatChunks) {
+                for (int j = 0; j < chunk.length; ++j) {
+                    center[j % this.dimensions] += chunk[j];
+                }//end for
+            }//end for
+        }//end if
+
+        return new Vector(center).divide(this.size);
+    }
+
+    /**
+     * Gets the chunk that holds the {@link Vector} with the given id, if the
+     * coordinates are stored as doubles.
+     * @param id The id of the {@link Vector}.
+     * @return The chunk that holds the {@link Vector} with the given id.
+     */
+    @NotNull double[] chunk(final int id) {
+        return this.chunks[id / this.rowsPerChunk];
+    }
+
+    /**
+     * Gets the chunk that holds the {@link Vector} with the given id, if the
+     * coordinates are stored as floats.
+     * @param id The id of the {@link Vector}.
+     * @return The chunk that holds the {@link Vector} with the given id.
+     */
+    @NotNull float[] floatChunk(final int id) {
+        return this.floatChunks[id / this.rowsPerChunk];
+    }
+
+    /**
+     * Gets the offset of the 1st coordinate of the {@link Vector} with the
+     * given id, inside its chunk.
+     * @param id The id of the {@link Vector}.
+     * @return The offset of the 1st coordinate of the {@link Vector} with the
+     * given id, inside its chunk.
+     */
+    int offset(final int id) {
+        return (id % this.rowsPerChunk) * this.dimensions;
+    }
+
+    private void bulk(@NotNull Vector v, final int from, final int to,
+            @NotNull double[] out, final int outOffset, final boolean
+            distances) {
+        Objects.checkFromToIndex(from, to, this.size);
+        Objects.checkFromIndexSize(outOffset, to - from, out.length);
+        this.checkSize(v.size());
+
+        final double[] COORDINATES = v.coordinates();
+        int id = from;
+        //Walks the chunks one by one, so that the offset of every row is just
+        //the offset of the previous row plus the dimensions
+        while (id < to) {
+            final int CHUNK_END = Math.min(to, (id / this.rowsPerChunk + 1) *
+                    this.rowsPerChunk);
+            int offset = this.offset(id);
+            if (Precision.DOUBLE == this.precision) {
+                final double[] CHUNK = this.chunk(id);
+                for (; id < CHUNK_END; ++id, offset += this.dimensions) {
+                    out[outOffset + id - from] = distances ?
+                            Kernels.sqrDistance(CHUNK, offset, COORDINATES, 0,
+                                    this.dimensions) :
+                            Kernels.dotProduct(CHUNK, offset, COORDINATES, 0,
+                                    this.dimensions);
+                }//end for
+            } else {
+                final float[] CHUNK = this.floatChunk(id);
+                for (; id < CHUNK_END; ++id, offset += this.dimensions) {
+                    out[outOffset + id - from] = distances ?
+                            Kernels.sqrDistance(CHUNK, offset, COORDINATES, 0,
+                                    this.dimensions) :
+                            Kernels.dotProduct(CHUNK, offset, COORDINATES, 0,
+                                    this.dimensions);
+                }//end for
+            }//end if
+        }//end while
+    }
+
+    private void checkSize(final int size) {
+        if (size != this.dimensions) {
+            throw new IllegalArgumentException("The given Vector must have " +
+                    "size equal to dimensions().");
+        }//end if
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VectorStore - size: %d - dimensions: %d - " +
+                "precision: %s", this.size, this.dimensions, this.precision);
+    }
+
+}//end class VectorStore
\ No newline at end of file